@@ -0,0 +1,42 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.Collection;
+import java.util.List;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+// Reports the payload size a benchmark recorded as a secondary result, aux counters would sum it over iterations
+public class PayloadSizeProfiler implements InternalProfiler {
+
+  private static volatile long bytes = -1;
+
+  public static void record(long payloadBytes) {
+    bytes = payloadBytes;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Payload size recorded by the benchmark";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {}
+
+  @Override
+  public Collection<? extends Result> afterIteration(
+    BenchmarkParams benchmarkParams,
+    IterationParams iterationParams,
+    IterationResult result
+  ) {
+    if (bytes < 0) {
+      return List.of();
+    }
+    return List.of(new ScalarResult("payload.bytes", bytes, "bytes", AggregationPolicy.AVG));
+  }
+
+}
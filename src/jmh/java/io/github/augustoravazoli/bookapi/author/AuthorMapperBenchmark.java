@@ -0,0 +1,49 @@
+package io.github.augustoravazoli.bookapi.author;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorMapperBenchmark {
+
+  private AuthorMapper authorMapper;
+  private Author author;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    authorMapper = new AuthorMapper();
+    author = new Author("J.R.R. Tolkien", "tolkien@example.com");
+    var id = Author.class.getDeclaredField("id");
+    id.setAccessible(true);
+    id.set(author, 1L);
+  }
+
+  @Benchmark
+  public AuthorResponse toResponse() {
+    return authorMapper.toResponse(author);
+  }
+
+  @Benchmark
+  public AuthorResponse toResponseThroughStreamPipeline() {
+    return Stream.of(author)
+      .map(authorMapper::toResponse)
+      .findAny()
+      .get();
+  }
+
+}
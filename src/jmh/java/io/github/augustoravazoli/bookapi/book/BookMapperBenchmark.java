@@ -0,0 +1,49 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMapperBenchmark {
+
+  private BookMapper bookMapper;
+  private Book book;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    bookMapper = new BookMapper();
+    book = new Book("The Lord of the Rings", "Fantasy", "9780544003415", true);
+    var id = Book.class.getDeclaredField("id");
+    id.setAccessible(true);
+    id.set(book, 1L);
+  }
+
+  @Benchmark
+  public BookResponse toResponse() {
+    return bookMapper.toResponse(book);
+  }
+
+  @Benchmark
+  public BookResponse toResponseThroughStreamPipeline() {
+    return Stream.of(book)
+      .map(bookMapper::toResponse)
+      .findAny()
+      .get();
+  }
+
+}
@@ -0,0 +1,72 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.augustoravazoli.bookapi.PayloadSizeProfiler;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookSerializationBenchmark {
+
+  @Param({ "20", "200", "2000" })
+  private int size;
+
+  @Param({ "json", "cbor", "smile" })
+  private String format;
+
+  private ObjectMapper mapper;
+  private List<BookResponse> books;
+  private byte[] payload;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = switch (format) {
+      case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+      case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+      default -> Jackson2ObjectMapperBuilder.json().build();
+    };
+    books = LongStream.rangeClosed(1, size)
+      .mapToObj(id -> new BookResponse(
+        id,
+        "The Lord of the Rings " + id,
+        "An epic high-fantasy novel by the English author and scholar J. R. R. Tolkien",
+        "9780544003415",
+        id % 2 == 0,
+        0
+      ))
+      .toList();
+    payload = mapper.writeValueAsBytes(books);
+    PayloadSizeProfiler.record(payload.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return mapper.writeValueAsBytes(books);
+  }
+
+  @Benchmark
+  public BookResponse[] deserialize() throws IOException {
+    return mapper.readValue(payload, BookResponse[].class);
+  }
+
+}
@@ -0,0 +1,82 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import io.github.augustoravazoli.bookapi.BookApiApplication;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+  private static final int BOOKS = 1_000;
+
+  @Param({ "1", "50" })
+  private int allocationSize;
+
+  // Batch size 1 sends one insert per book, the way IDENTITY ids did since they disable JDBC batching
+  @Param({ "1", "50" })
+  private int batchSize;
+
+  private ConfigurableApplicationContext context;
+  private BookRepository bookRepository;
+  private int batch;
+  private List<Book> books;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BookApiApplication.class)
+      .web(WebApplicationType.NONE)
+      .properties(
+        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+        "spring.flyway.locations=classpath:db/migration",
+        "book-api.ids.allocation-size=" + allocationSize,
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+        "logging.level.root=warn"
+      )
+      .run();
+    bookRepository = context.getBean(BookRepository.class);
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareBooks() {
+    var prefix = batch++ + "-";
+    books = IntStream.range(0, BOOKS)
+      .mapToObj(i -> new Book("Book " + prefix + i, "Description", prefix + i, i % 2 == 0))
+      .toList();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BOOKS)
+  public List<Book> saveAll() {
+    return bookRepository.saveAll(books);
+  }
+
+}
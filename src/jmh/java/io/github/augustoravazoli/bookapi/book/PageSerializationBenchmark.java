@@ -0,0 +1,95 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.augustoravazoli.bookapi.BookApiApplication;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+  @Param({ "100", "2000" })
+  private int size;
+
+  private ConfigurableApplicationContext context;
+  private BookRepository bookRepository;
+  private BookService bookService;
+  private ObjectMapper objectMapper;
+  private ObjectWriter bookWriter;
+  private PageRequest page;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BookApiApplication.class)
+      .web(WebApplicationType.NONE)
+      .properties(
+        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+        "spring.flyway.locations=classpath:db/migration",
+        "logging.level.root=warn"
+      )
+      .run();
+    bookRepository = context.getBean(BookRepository.class);
+    bookService = context.getBean(BookService.class);
+    objectMapper = context.getBean(ObjectMapper.class);
+    bookWriter = objectMapper.writerFor(BookResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    bookRepository.saveAll(IntStream.range(0, size)
+      .mapToObj(i -> new Book("Book " + i, "Description of book " + i, "978" + i, i % 2 == 0))
+      .toList()
+    );
+    page = PageRequest.of(0, size, Sort.by("id"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  // Baseline, the whole page is read in one query and written the way the JSON message converter does
+  @Benchmark
+  public void writeCollectedPage() throws IOException {
+    objectMapper.writeValue(OutputStream.nullOutputStream(), bookRepository.findAll(BookFilter.NONE, page).getContent());
+  }
+
+  // Reads the page in chunks as the listing does, writing each one before reading the next
+  @Benchmark
+  public void writeStreamedPage() throws IOException {
+    var chunks = bookService.findAllBooks(BookFilter.NONE, page);
+    try (var generator = objectMapper.createGenerator(OutputStream.nullOutputStream())) {
+      generator.writeStartArray();
+      while (chunks.hasNext()) {
+        for (var book : chunks.next()) {
+          bookWriter.writeValue(generator, book);
+        }
+      }
+      generator.writeEndArray();
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import jakarta.persistence.EntityManager;
+import io.github.augustoravazoli.bookapi.BookApiApplication;
+import io.github.augustoravazoli.bookapi.author.Author;
+import io.github.augustoravazoli.bookapi.author.AuthorRepository;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadProjectionBenchmark {
+
+  @Param({ "20", "100" })
+  private int size;
+
+  private ConfigurableApplicationContext context;
+  private BookRepository bookRepository;
+  private BookMapper bookMapper;
+  private EntityManager entityManager;
+  private long authorId;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BookApiApplication.class)
+      .web(WebApplicationType.NONE)
+      .properties(
+        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+        "spring.flyway.locations=classpath:db/migration",
+        "logging.level.root=warn"
+      )
+      .run();
+    bookRepository = context.getBean(BookRepository.class);
+    bookMapper = context.getBean(BookMapper.class);
+    entityManager = context.getBean(EntityManager.class);
+    var author = context.getBean(AuthorRepository.class).save(new Author("Author", "author@example.com"));
+    var books = bookRepository.saveAll(IntStream.range(0, size)
+      .mapToObj(i -> new Book("Book " + i, "Description of book " + i, "978" + i, i % 2 == 0))
+      .toList()
+    );
+    books.forEach(book -> bookRepository.linkAuthor(book.getId(), author.getId()));
+    authorId = author.getId();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<BookResponse> findAllEntities() {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createQuery(Book.class);
+    var root = query.from(Book.class);
+    query.select(root).orderBy(builder.asc(root.get("id")));
+    return entityManager.createQuery(query)
+      .setMaxResults(size + 1)
+      .getResultList()
+      .stream()
+      .map(bookMapper::toResponse)
+      .toList();
+  }
+
+  @Benchmark
+  public List<BookResponse> findAllProjections() {
+    return bookRepository.findAll(BookFilter.NONE, PageRequest.of(0, size, Sort.by("id"))).getContent();
+  }
+
+  @Benchmark
+  public List<Map<String, Object>> findAllFields() {
+    return bookRepository.findAll(BookFilter.NONE, List.of("id", "title"), PageRequest.of(0, size, Sort.by("id")))
+      .getContent();
+  }
+
+  @Benchmark
+  public List<BookResponse> findAuthorBooksEntities() {
+    return entityManager.createQuery("SELECT b FROM Author a LEFT JOIN a.books b WHERE a.id = :id", Book.class)
+      .setParameter("id", authorId)
+      .getResultList()
+      .stream()
+      .filter(Objects::nonNull)
+      .map(bookMapper::toResponse)
+      .toList();
+  }
+
+  @Benchmark
+  public List<BookResponse> findAuthorBooksProjections() {
+    return bookRepository.findAllOfAuthor(authorId);
+  }
+
+}
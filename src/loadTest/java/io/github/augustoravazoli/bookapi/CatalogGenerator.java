@@ -0,0 +1,95 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CatalogGenerator {
+
+  record Catalog(long[] bookIds, long[] authorIds) {}
+
+  private static final int BATCH_SIZE = 1_000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Random random = new Random(42);
+
+  CatalogGenerator(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  Catalog generate(int books, int authors) {
+    insertAuthors(authors);
+    insertBooks(books);
+    var bookIds = ids("SELECT id FROM book ORDER BY id");
+    var authorIds = ids("SELECT id FROM author ORDER BY id");
+    linkBooksToAuthors(bookIds, authorIds);
+    return new Catalog(bookIds, authorIds);
+  }
+
+  private void insertAuthors(int authors) {
+    insert(
+      "INSERT INTO author (id, version, name, email) VALUES (NEXT VALUE FOR author_seq, 0, ?, ?)",
+      authors,
+      i -> new Object[] { "Author " + i, "author" + i + "@example.com" }
+    );
+  }
+
+  private void insertBooks(int books) {
+    insert(
+      "INSERT INTO book (id, version, title, description, isbn, published) VALUES (NEXT VALUE FOR book_seq, 0, ?, ?, ?, ?)",
+      books,
+      i -> new Object[] {
+        "Book " + i,
+        "Description of book " + i + " with enough text to look like a real synopsis of a real book",
+        String.format("978%010d", i),
+        i % 3 != 0
+      }
+    );
+  }
+
+  private void linkBooksToAuthors(long[] bookIds, long[] authorIds) {
+    var links = new ArrayList<Object[]>(BATCH_SIZE * 2);
+    for (var bookId : bookIds) {
+      for (var authorId : pickAuthors(authorIds)) {
+        links.add(new Object[] { bookId, authorId });
+      }
+      if (links.size() >= BATCH_SIZE) {
+        jdbcTemplate.batchUpdate("INSERT INTO book_author (book_id, author_id) VALUES (?, ?)", links);
+        links.clear();
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO book_author (book_id, author_id) VALUES (?, ?)", links);
+  }
+
+  private LinkedHashSet<Long> pickAuthors(long[] authorIds) {
+    var roll = random.nextDouble();
+    var count = roll < 0.70 ? 1 : roll < 0.90 ? 2 : roll < 0.97 ? 3 : 4;
+    var picked = new LinkedHashSet<Long>();
+    while (picked.size() < Math.min(count, authorIds.length)) {
+      picked.add(authorIds[(int) (authorIds.length * Math.pow(random.nextDouble(), 2))]);
+    }
+    return picked;
+  }
+
+  private void insert(String sql, int rows, IntFunction<Object[]> row) {
+    for (int from = 0; from < rows; from += BATCH_SIZE) {
+      List<Object[]> batch = IntStream.range(from, Math.min(from + BATCH_SIZE, rows))
+        .mapToObj(row)
+        .toList();
+      jdbcTemplate.batchUpdate(sql, batch);
+    }
+  }
+
+  private long[] ids(String sql) {
+    return jdbcTemplate.queryForList(sql, Long.class)
+      .stream()
+      .mapToLong(Long::longValue)
+      .toArray();
+  }
+
+}
@@ -0,0 +1,152 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+public class LoadTest {
+
+  private record Endpoint(String name, Function<CatalogGenerator.Catalog, String> path) {}
+
+  private record Result(Histogram latencies, LongAdder errors) {}
+
+  private static final List<Endpoint> ENDPOINTS = List.of(
+    new Endpoint("GET /api/books?page", catalog -> "/api/books?size=20&page=" + random(catalog.bookIds().length / 20)),
+    new Endpoint("GET /api/books?after", catalog -> "/api/books?size=20&after=" + Cursor.encode(pick(catalog.bookIds()))),
+    new Endpoint("GET /api/books/{id}", catalog -> "/api/books/" + pick(catalog.bookIds())),
+    new Endpoint("GET /api/books/{id}/authors", catalog -> "/api/books/" + pick(catalog.bookIds()) + "/authors"),
+    new Endpoint("GET /api/authors/{id}", catalog -> "/api/authors/" + pick(catalog.authorIds())),
+    new Endpoint("GET /api/authors/{id}/books", catalog -> "/api/authors/" + pick(catalog.authorIds()) + "/books")
+  );
+
+  public static void main(String[] args) throws Exception {
+    var books = Integer.getInteger("loadtest.books", 1_000_000);
+    var authors = Integer.getInteger("loadtest.authors", 200_000);
+    var concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    var warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    var duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    try (var context = new SpringApplicationBuilder(BookApiApplication.class)
+      .properties(
+        "server.port=0",
+        "spring.datasource.url=jdbc:h2:mem:loadtest",
+        "spring.flyway.locations=classpath:db/migration",
+        "logging.level.root=warn",
+        "logging.level.org.apache.catalina.loader=error"
+      )
+      .run(args)
+    ) {
+      var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      System.out.printf("Generating %,d books and %,d authors%n", books, authors);
+      var catalog = new CatalogGenerator(context.getBean(DataSource.class)).generate(books, authors);
+      System.out.printf("Running %d clients for %s after %s of warmup%n", concurrency, duration, warmup);
+      var results = run("http://localhost:" + port, catalog, concurrency, warmup, duration);
+      report(results, duration);
+    }
+  }
+
+  private static Map<String, Result> run(
+    String baseUrl,
+    CatalogGenerator.Catalog catalog,
+    int concurrency,
+    Duration warmup,
+    Duration duration
+  ) throws InterruptedException {
+    var results = new LinkedHashMap<String, Result>();
+    ENDPOINTS.forEach(endpoint -> results.put(
+      endpoint.name(),
+      new Result(new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3), new LongAdder())
+    ));
+    var client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .build();
+    var start = System.nanoTime();
+    var measureFrom = start + warmup.toNanos();
+    var end = measureFrom + duration.toNanos();
+    var workers = Executors.newFixedThreadPool(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      workers.execute(() -> {
+        while (System.nanoTime() < end) {
+          var endpoint = ENDPOINTS.get(random(ENDPOINTS.size()));
+          var request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path().apply(catalog))).build();
+          var sent = System.nanoTime();
+          var ok = send(client, request);
+          var received = System.nanoTime();
+          if (sent >= measureFrom && received < end) {
+            var result = results.get(endpoint.name());
+            result.latencies().recordValue(Math.min(received - sent, result.latencies().getHighestTrackableValue()));
+            if (!ok) {
+              result.errors().increment();
+            }
+          }
+        }
+      });
+    }
+    workers.shutdown();
+    workers.awaitTermination(warmup.plus(duration).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+    return results;
+  }
+
+  private static boolean send(HttpClient client, HttpRequest request) {
+    try {
+      var status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      return status >= 200 && status < 300;
+    } catch (Exception ex) {
+      return false;
+    }
+  }
+
+  private static void report(Map<String, Result> results, Duration duration) {
+    var seconds = duration.toMillis() / 1000.0;
+    System.out.printf("%n%-30s %10s %10s %10s %10s %10s %10s %8s%n",
+      "Endpoint", "Requests", "Req/s", "p50 (ms)", "p99 (ms)", "p999 (ms)", "Max (ms)", "Errors");
+    var total = new Result(new Histogram(TimeUnit.MINUTES.toNanos(1), 3), new LongAdder());
+    results.forEach((name, result) -> {
+      report(name, result, seconds);
+      total.latencies().add(result.latencies());
+      total.errors().add(result.errors().sum());
+    });
+    report("Total", total, seconds);
+  }
+
+  private static void report(String name, Result result, double seconds) {
+    var latencies = result.latencies();
+    System.out.printf("%-30s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+      name,
+      latencies.getTotalCount(),
+      latencies.getTotalCount() / seconds,
+      millis(latencies.getValueAtPercentile(50)),
+      millis(latencies.getValueAtPercentile(99)),
+      millis(latencies.getValueAtPercentile(99.9)),
+      millis(latencies.getMaxValue()),
+      result.errors().sum()
+    );
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static int random(int bound) {
+    return ThreadLocalRandom.current().nextInt(Math.max(bound, 1));
+  }
+
+  private static long pick(long[] ids) {
+    return ids[random(ids.length)];
+  }
+
+}
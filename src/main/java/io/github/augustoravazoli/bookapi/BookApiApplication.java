@@ -2,7 +2,12 @@ package io.github.augustoravazoli.bookapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@ConfigurationPropertiesScan
 @SpringBootApplication
 public class BookApiApplication {
 
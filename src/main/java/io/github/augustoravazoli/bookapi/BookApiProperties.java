@@ -0,0 +1,35 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("book-api")
+public record BookApiProperties(
+
+  @DefaultValue
+  Pagination pagination,
+
+  @DefaultValue
+  Ids ids
+
+) {
+
+  public record Pagination(
+
+    @DefaultValue("exact")
+    TotalCount.Strategy countStrategy,
+
+    @DefaultValue("10s")
+    Duration countTtl
+
+  ) {}
+
+  public record Ids(
+
+    @DefaultValue("50")
+    int allocationSize
+
+  ) {}
+
+}
@@ -0,0 +1,58 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class Cursor {
+
+  public record Key(String value, long id) {}
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private Cursor() {}
+
+  public static String encode(long id) {
+    return encode(String.valueOf(id));
+  }
+
+  public static String encode(Key key) {
+    return encode(key.id() + ":" + key.value());
+  }
+
+  public static long decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(decodeToString(cursor));
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidCursorException(cursor);
+    }
+  }
+
+  public static Key decodeKey(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      var decoded = decodeToString(cursor);
+      var separator = decoded.indexOf(':');
+      if (separator < 0) {
+        throw new InvalidCursorException(cursor);
+      }
+      return new Key(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidCursorException(cursor);
+    }
+  }
+
+  private static String encode(String value) {
+    return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodeToString(String cursor) {
+    return new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,41 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+public final class ETags {
+
+  private ETags() {}
+
+  // Strong and keyed by format, each format is a different representation of the same version
+  public static String of(long version, MediaType format) {
+    return "\"" + version + "-" + format.getSubtype() + "\"";
+  }
+
+  public static OptionalLong version(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return OptionalLong.empty();
+    }
+    var tag = ifMatch.trim();
+    if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+      return OptionalLong.of(-1);
+    }
+    var value = tag.substring(1, tag.length() - 1);
+    var separator = value.indexOf('-');
+    try {
+      return OptionalLong.of(Long.parseLong(separator < 0 ? value : value.substring(0, separator)));
+    } catch (NumberFormatException ex) {
+      return OptionalLong.of(-1);
+    }
+  }
+
+  // Weak, it tags what the listing reflects rather than its bytes, and lets compressed responses keep it
+  public static String of(Object... parts) {
+    var digest = DigestUtils.md5DigestAsHex(Arrays.toString(parts).getBytes(StandardCharsets.UTF_8));
+    return "W/\"" + digest + "\"";
+  }
+
+}
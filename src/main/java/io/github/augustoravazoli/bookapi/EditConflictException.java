@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import org.springframework.web.server.ResponseStatusException;
+
+public class EditConflictException extends ResponseStatusException {
+
+  public EditConflictException() {
+    super(CONFLICT, "Resource was modified concurrently, try again");
+  }
+
+}
@@ -0,0 +1,181 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import static java.util.stream.Collectors.toSet;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Selection;
+
+public final class FilterQueries {
+
+  private FilterQueries() {}
+
+  public static <T, R> Slice<R> findSlice(
+    EntityManager entityManager,
+    Class<T> type,
+    Class<R> projection,
+    List<String> attributes,
+    Specification<T> specification,
+    Pageable page
+  ) {
+    return slice(select(entityManager, type, projection, attributes, specification, page.getSort()), page);
+  }
+
+  public static <T, R> List<R> findList(
+    EntityManager entityManager,
+    Class<T> type,
+    Class<R> projection,
+    List<String> attributes,
+    Specification<T> specification,
+    Pageable page
+  ) {
+    return limit(select(entityManager, type, projection, attributes, specification, page.getSort()), page).getResultList();
+  }
+
+  public static <T, R> List<R> findList(
+    EntityManager entityManager,
+    Class<T> type,
+    Class<R> projection,
+    List<String> attributes,
+    Specification<T> specification,
+    Sort sort,
+    long offset,
+    int limit
+  ) {
+    return select(entityManager, type, projection, attributes, specification, sort)
+      .setFirstResult((int) offset)
+      .setMaxResults(limit)
+      .getResultList();
+  }
+
+  public static <T> Slice<Map<String, Object>> findFields(
+    EntityManager entityManager,
+    Class<T> type,
+    List<String> attributes,
+    Specification<T> specification,
+    Pageable page
+  ) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createTupleQuery();
+    var root = query.from(type);
+    var predicate = specification.toPredicate(root, query, builder);
+    var selections = attributes.stream().map(attribute -> root.get(attribute).alias(attribute)).toArray(Selection<?>[]::new);
+    query.multiselect(selections).orderBy(toOrders(page.getSort(), root, builder));
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return slice(entityManager.createQuery(query), page).map(tuple -> toMap(tuple, attributes));
+  }
+
+  public static List<String> fields(String requested, List<String> supported) {
+    var names = Arrays.stream(requested.split(","))
+      .map(String::trim)
+      .filter(name -> !name.isEmpty())
+      .collect(toSet());
+    names.stream()
+      .filter(name -> !supported.contains(name))
+      .sorted()
+      .findFirst()
+      .ifPresent(name -> {
+        throw new InvalidFieldException(name);
+      });
+    return names.isEmpty() ? supported : supported.stream().filter(names::contains).toList();
+  }
+
+  public static <T> Specification<T> equalTo(String attribute, Object value) {
+    return value == null ? null : (root, query, builder) -> builder.equal(root.get(attribute), value);
+  }
+
+  public static <T> Specification<T> startsWith(String attribute, String prefix) {
+    if (prefix == null || prefix.isEmpty()) {
+      return null;
+    }
+    var pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    return (root, query, builder) -> builder.like(root.get(attribute), pattern, '\\');
+  }
+
+  public static <T> Specification<T> joinedTo(String association, Long id) {
+    return id == null ? null : (root, query, builder) -> builder.equal(root.join(association).get("id"), id);
+  }
+
+  // Rows past the given one in sort order, so chunks of a page are read without skipping the earlier ones again
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public static <T> Specification<T> after(Sort sort, Function<String, Object> values) {
+    return (root, query, builder) -> {
+      var equal = new ArrayList<Predicate>();
+      var past = new ArrayList<Predicate>();
+      for (var order : sort) {
+        Path<Comparable> path = root.get(order.getProperty());
+        var value = (Comparable) values.apply(order.getProperty());
+        var beyond = order.isAscending() ? builder.greaterThan(path, value) : builder.lessThan(path, value);
+        var predicates = new ArrayList<>(equal);
+        predicates.add(beyond);
+        past.add(builder.and(predicates.toArray(Predicate[]::new)));
+        equal.add(builder.equal(path, value));
+      }
+      return builder.or(past.toArray(Predicate[]::new));
+    };
+  }
+
+  private static <T, R> TypedQuery<R> select(
+    EntityManager entityManager,
+    Class<T> type,
+    Class<R> projection,
+    List<String> attributes,
+    Specification<T> specification,
+    Sort sort
+  ) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createQuery(projection);
+    var root = query.from(type);
+    var predicate = specification.toPredicate(root, query, builder);
+    var selections = attributes.stream().map(root::get).toArray(Selection<?>[]::new);
+    query.select(builder.construct(projection, selections)).orderBy(toOrders(sort, root, builder));
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query);
+  }
+
+  private static <R> TypedQuery<R> limit(TypedQuery<R> typedQuery, Pageable page) {
+    if (page.isPaged()) {
+      typedQuery.setFirstResult((int) page.getOffset()).setMaxResults(page.getPageSize());
+    }
+    return typedQuery;
+  }
+
+  private static <R> Slice<R> slice(TypedQuery<R> typedQuery, Pageable page) {
+    if (page.isUnpaged()) {
+      return new SliceImpl<>(typedQuery.getResultList());
+    }
+    var content = typedQuery
+      .setFirstResult((int) page.getOffset())
+      .setMaxResults(page.getPageSize() + 1)
+      .getResultList();
+    var hasNext = content.size() > page.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, page.getPageSize()) : content, page, hasNext);
+  }
+
+  private static Map<String, Object> toMap(Tuple tuple, List<String> attributes) {
+    var values = new LinkedHashMap<String, Object>();
+    for (int i = 0; i < attributes.size(); i++) {
+      values.put(attributes.get(i), tuple.get(i));
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidCursorException extends ResponseStatusException {
+
+  public InvalidCursorException(String cursor) {
+    super(BAD_REQUEST, String.format("Cursor \"%s\" is invalid", cursor));
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidFieldException extends ResponseStatusException {
+
+  public InvalidFieldException(String field) {
+    super(BAD_REQUEST, String.format("Field \"%s\" is not supported", field));
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidIdException extends ResponseStatusException {
+
+  public InvalidIdException() {
+    super(BAD_REQUEST, "Ids must not be null");
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidParametersException extends ResponseStatusException {
+
+  public InvalidParametersException(String parameter, String other) {
+    super(BAD_REQUEST, String.format("Parameters \"%s\" and \"%s\" can't be combined", parameter, other));
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidSortException extends ResponseStatusException {
+
+  public InvalidSortException(String property) {
+    super(BAD_REQUEST, String.format("Sorting by \"%s\" is not supported", property));
+  }
+
+}
@@ -0,0 +1,35 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public final class OptimisticLocking {
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  private OptimisticLocking() {}
+
+  public static void requireVersion(OptionalLong expectedVersion, long currentVersion) {
+    if (expectedVersion.isPresent() && expectedVersion.getAsLong() != currentVersion) {
+      throw new PreconditionFailedException(expectedVersion.getAsLong());
+    }
+  }
+
+  public static <T> T edit(TransactionTemplate transactionTemplate, OptionalLong expectedVersion, Supplier<T> edit) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> edit.get());
+      } catch (ObjectOptimisticLockingFailureException ex) {
+        if (expectedVersion.isPresent()) {
+          throw new PreconditionFailedException(expectedVersion.getAsLong());
+        }
+        if (attempt == MAX_ATTEMPTS) {
+          throw new EditConflictException();
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,51 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.HashMap;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import io.github.augustoravazoli.bookapi.RequiredIndexes.Index;
+
+@Configuration(proxyBeanMethods = false)
+class PersistenceConfiguration {
+
+  @Bean
+  public HibernatePropertiesCustomizer idAllocationSizeCustomizer(BookApiProperties properties) {
+    return hibernateProperties -> hibernateProperties.put(
+      PooledSequenceGenerator.ALLOCATION_SIZE, properties.ids().allocationSize()
+    );
+  }
+
+  @Bean
+  public FlywayConfigurationCustomizer idAllocationSizePlaceholder(BookApiProperties properties) {
+    return configuration -> {
+      var placeholders = new HashMap<>(configuration.getPlaceholders());
+      placeholders.put("id_allocation_size", String.valueOf(properties.ids().allocationSize()));
+      configuration.placeholders(placeholders);
+    };
+  }
+
+  @Bean
+  @DependsOnDatabaseInitialization
+  public RequiredIndexes requiredIndexes(DataSource dataSource) {
+    return new RequiredIndexes(dataSource, List.of(
+      // book listings filtered by published and ordered by id
+      Index.on("book", "published", "id"),
+      // title and isbn uniqueness and prefix filters
+      Index.on("book", "title"),
+      Index.on("book", "isbn"),
+      // email uniqueness
+      Index.on("author", "email"),
+      // author listings filtered by name prefix and ordered by name and id
+      Index.on("author", "name", "id"),
+      // books of an author and authors of a book
+      Index.on("book_author", "author_id"),
+      Index.on("book_author", "book_id")
+    ));
+  }
+
+}
@@ -0,0 +1,20 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.Properties;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+  public static final String ALLOCATION_SIZE = "book_api.id.allocation_size";
+
+  @Override
+  public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+    var settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+    parameters.put(INCREMENT_PARAM, String.valueOf(settings.getOrDefault(ALLOCATION_SIZE, DEFAULT_INCREMENT_SIZE)));
+    super.configure(type, parameters, serviceRegistry);
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bookapi;
+
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import org.springframework.web.server.ResponseStatusException;
+
+public class PreconditionFailedException extends ResponseStatusException {
+
+  public PreconditionFailedException(long version) {
+    super(PRECONDITION_FAILED, String.format("Version \"%d\" is not the current version", version));
+  }
+
+}
@@ -0,0 +1,56 @@
+package io.github.augustoravazoli.bookapi;
+
+final class QueryMetrics {
+
+  record Counts(long statements, long commits, long rows, long entities) {}
+
+  private static final class Counter {
+    private long statements;
+    private long commits;
+    private long rows;
+    private long entities;
+  }
+
+  private static final ThreadLocal<Counter> COUNTER = new ThreadLocal<>();
+
+  private QueryMetrics() {}
+
+  static void start() {
+    COUNTER.set(new Counter());
+  }
+
+  static Counts stop() {
+    var counter = COUNTER.get();
+    COUNTER.remove();
+    return counter == null ? null : new Counts(counter.statements, counter.commits, counter.rows, counter.entities);
+  }
+
+  static void statementExecuted() {
+    var counter = COUNTER.get();
+    if (counter != null) {
+      counter.statements++;
+    }
+  }
+
+  static void committed() {
+    var counter = COUNTER.get();
+    if (counter != null) {
+      counter.commits++;
+    }
+  }
+
+  static void rowFetched() {
+    var counter = COUNTER.get();
+    if (counter != null) {
+      counter.rows++;
+    }
+  }
+
+  static void entityLoaded() {
+    var counter = COUNTER.get();
+    if (counter != null) {
+      counter.entities++;
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import javax.sql.DataSource;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration(proxyBeanMethods = false)
+class QueryMetricsConfiguration implements WebMvcConfigurer {
+
+  private final MeterRegistry meterRegistry;
+
+  QueryMetricsConfiguration(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+    this.meterRegistry = meterRegistry;
+    entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+      .getServiceRegistry()
+      .getService(EventListenerRegistry.class)
+      .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> QueryMetrics.entityLoaded());
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new QueryMetricsInterceptor(meterRegistry)).addPathPatterns("/api/**");
+  }
+
+  @Bean
+  static BeanPostProcessor queryMetricsDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+          return bean;
+        }
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+          .afterQuery((execution, queries) -> QueryMetrics.statementExecuted())
+          .proxyResultSet()
+          .methodListener(new JdbcCountingListener())
+          .build();
+      }
+    };
+  }
+
+  private static class JdbcCountingListener implements MethodExecutionListener {
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {}
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+      var method = context.getMethod().getName();
+      if (context.getTarget() instanceof ResultSet
+        && "next".equals(method)
+        && Boolean.TRUE.equals(context.getResult())) {
+        QueryMetrics.rowFetched();
+      } else if (context.getTarget() instanceof Connection
+        && "commit".equals(method)
+        && context.getThrown() == null) {
+        QueryMetrics.committed();
+      }
+    }
+
+  }
+
+}
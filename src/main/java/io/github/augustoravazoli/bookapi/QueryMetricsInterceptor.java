@@ -0,0 +1,66 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String START_ATTRIBUTE = QueryMetricsInterceptor.class.getName() + ".start";
+
+  private final MeterRegistry meterRegistry;
+
+  QueryMetricsInterceptor(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    QueryMetrics.start();
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    QueryMetrics.stop();
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    var counts = QueryMetrics.stop();
+    if (counts == null || !(handler instanceof HandlerMethod method)) {
+      return;
+    }
+    var tags = Tags.of(
+      "handler", method.getBeanType().getSimpleName() + "." + method.getMethod().getName(),
+      "status", String.valueOf(response.getStatus())
+    );
+    Timer.builder("api.handler.requests")
+      .description("Latency of requests per controller handler")
+      .tags(tags)
+      .publishPercentileHistogram()
+      .register(meterRegistry)
+      .record(System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE), TimeUnit.NANOSECONDS);
+    record("api.handler.jdbc.statements", "JDBC statements executed per request", tags, counts.statements());
+    record("api.handler.jdbc.commits", "JDBC commits per request", tags, counts.commits());
+    record("api.handler.jdbc.rows", "JDBC rows fetched per request", tags, counts.rows());
+    record("api.handler.hibernate.entities", "Entities loaded by Hibernate per request", tags, counts.entities());
+  }
+
+  private void record(String name, String description, Tags tags, long value) {
+    DistributionSummary.builder(name)
+      .description(description)
+      .tags(tags)
+      .publishPercentileHistogram()
+      .register(meterRegistry)
+      .record(value);
+  }
+
+}
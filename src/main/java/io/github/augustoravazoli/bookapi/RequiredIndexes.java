@@ -0,0 +1,93 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.InitializingBean;
+
+class RequiredIndexes implements InitializingBean {
+
+  record Index(String table, List<String> columns) {
+
+    static Index on(String table, String... columns) {
+      return new Index(table, List.of(columns));
+    }
+
+    @Override
+    public String toString() {
+      return table + "(" + String.join(", ", columns) + ")";
+    }
+
+  }
+
+  private final DataSource dataSource;
+  private final List<Index> indexes;
+
+  RequiredIndexes(DataSource dataSource, List<Index> indexes) {
+    this.dataSource = dataSource;
+    this.indexes = indexes;
+  }
+
+  @Override
+  public void afterPropertiesSet() throws SQLException {
+    var missing = findMissing();
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException("Missing indexes " + missing + ", is the schema migrated?");
+    }
+  }
+
+  List<Index> findMissing() throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      var missing = new ArrayList<Index>();
+      var indexesByTable = new HashMap<String, List<List<String>>>();
+      for (var index : indexes) {
+        var existing = indexesByTable.computeIfAbsent(index.table(), table -> findIndexes(connection, table));
+        if (existing.stream().noneMatch(columns -> startsWith(columns, index.columns()))) {
+          missing.add(index);
+        }
+      }
+      return missing;
+    }
+  }
+
+  private static List<List<String>> findIndexes(Connection connection, String table) {
+    try {
+      var metaData = connection.getMetaData();
+      var columnsByIndex = new HashMap<String, Map<Short, String>>();
+      try (var rows = metaData.getIndexInfo(
+        connection.getCatalog(), connection.getSchema(), identifier(metaData, table), false, false
+      )) {
+        while (rows.next()) {
+          var name = rows.getString("INDEX_NAME");
+          if (name != null) {
+            columnsByIndex
+              .computeIfAbsent(name, key -> new TreeMap<>())
+              .put(rows.getShort("ORDINAL_POSITION"), rows.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+          }
+        }
+      }
+      return columnsByIndex.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+    } catch (SQLException ex) {
+      throw new IllegalStateException("Could not read the indexes of " + table, ex);
+    }
+  }
+
+  private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+    if (metaData.storesUpperCaseIdentifiers()) {
+      return name.toUpperCase(Locale.ROOT);
+    }
+    return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name;
+  }
+
+  private static boolean startsWith(List<String> columns, List<String> prefix) {
+    return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+  }
+
+}
@@ -0,0 +1,62 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+public class TotalCount {
+
+  public enum Strategy { EXACT, CACHED, NONE }
+
+  private record Snapshot(long value, long expiresAt) {}
+
+  private final Strategy strategy;
+  private final long ttl;
+  private final LongSupplier counter;
+  private final Lock lock = new ReentrantLock();
+  private volatile Snapshot snapshot;
+
+  public TotalCount(BookApiProperties.Pagination pagination, LongSupplier counter) {
+    this(pagination.countStrategy(), pagination.countTtl(), counter);
+  }
+
+  public TotalCount(Strategy strategy, Duration ttl, LongSupplier counter) {
+    this.strategy = strategy;
+    this.ttl = ttl.toNanos();
+    this.counter = counter;
+  }
+
+  public OptionalLong get() {
+    return switch (strategy) {
+      case EXACT -> OptionalLong.of(counter.getAsLong());
+      case CACHED -> OptionalLong.of(cached());
+      case NONE -> OptionalLong.empty();
+    };
+  }
+
+  public OptionalLong getIfExact(LongSupplier counter) {
+    return strategy == Strategy.EXACT ? OptionalLong.of(counter.getAsLong()) : OptionalLong.empty();
+  }
+
+  private long cached() {
+    var current = snapshot;
+    if (current == null || System.nanoTime() - current.expiresAt() >= 0) {
+      // A lock rather than a monitor, virtual threads waiting on the count query mustn't pin their carriers
+      lock.lock();
+      try {
+        current = snapshot;
+        if (current == null || System.nanoTime() - current.expiresAt() >= 0) {
+          var value = counter.getAsLong();
+          current = new Snapshot(value, System.nanoTime() + ttl);
+          snapshot = current;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    return current.value();
+  }
+
+}
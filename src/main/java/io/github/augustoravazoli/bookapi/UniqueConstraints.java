@@ -0,0 +1,18 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.Locale;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public final class UniqueConstraints {
+
+  private UniqueConstraints() {}
+
+  public static boolean isViolated(DataIntegrityViolationException ex, String constraint) {
+    var name = ex.getCause() instanceof ConstraintViolationException violation
+      ? violation.getConstraintName()
+      : ex.getMessage();
+    return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+  }
+
+}
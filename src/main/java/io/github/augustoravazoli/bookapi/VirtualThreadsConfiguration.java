@@ -0,0 +1,41 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "book-api.threads.virtual", havingValue = "true")
+class VirtualThreadsConfiguration {
+
+  @Bean(destroyMethod = "close")
+  public ExecutorService virtualThreadExecutor() {
+    if (Runtime.version().feature() < 21) {
+      throw new IllegalStateException(String.format(
+        "Virtual threads require Java 21 or later, but running on Java %s", Runtime.version().feature()
+      ));
+    }
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException("Unable to create virtual thread executor", ex);
+    }
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+    return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+  }
+
+  @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+    return new TaskExecutorAdapter(virtualThreadExecutor);
+  }
+
+}
@@ -0,0 +1,64 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.List;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import static io.github.augustoravazoli.bookapi.WireFormats.APPLICATION_SMILE;
+import io.github.augustoravazoli.bookapi.WireFormats.Format;
+
+@Configuration(proxyBeanMethods = false)
+class WireFormatConfiguration implements WebMvcConfigurer {
+
+  // Every API response is negotiated between the formats below, so shared caches must key it by Accept
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new HandlerInterceptor() {
+      @Override
+      public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return true;
+      }
+    }).addPathPatterns("/api/**");
+  }
+
+  // Replace the MVC defaults so binary formats share the customizations of the JSON mapper
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+
+  @Bean
+  public WireFormats wireFormats(
+    ContentNegotiationManager contentNegotiationManager,
+    MappingJackson2HttpMessageConverter jsonConverter,
+    MappingJackson2CborHttpMessageConverter cborConverter,
+    MappingJackson2SmileHttpMessageConverter smileConverter
+  ) {
+    return new WireFormats(contentNegotiationManager, List.of(
+      new Format(APPLICATION_JSON, jsonConverter.getObjectMapper()),
+      new Format(APPLICATION_CBOR, cborConverter.getObjectMapper()),
+      new Format(APPLICATION_SMILE, smileConverter.getObjectMapper())
+    ));
+  }
+
+}
@@ -0,0 +1,45 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+public class WireFormats {
+
+  public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+  public record Format(MediaType contentType, ObjectMapper mapper) {
+
+    // For writing many values to one generator, leaving flushes to the output
+    public ObjectWriter writerFor(Class<?> type) {
+      return mapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+  }
+
+  private final ContentNegotiationManager contentNegotiationManager;
+  private final List<Format> formats;
+
+  WireFormats(ContentNegotiationManager contentNegotiationManager, List<Format> formats) {
+    this.contentNegotiationManager = contentNegotiationManager;
+    this.formats = formats;
+  }
+
+  // Resolves the format the message converters will write, so validators can be keyed by it
+  public Format negotiate(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+    for (var accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+      for (var format : formats) {
+        if (accepted.getQualityValue() > 0 && accepted.isCompatibleWith(format.contentType())) {
+          return format;
+        }
+      }
+    }
+    throw new HttpMediaTypeNotAcceptableException(formats.stream().map(Format::contentType).toList());
+  }
+
+}
@@ -3,28 +3,50 @@ package io.github.augustoravazoli.bookapi.author;
 import java.util.HashSet;
 import java.util.Set;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
-import static jakarta.persistence.GenerationType.IDENTITY;
 import static jakarta.persistence.CascadeType.MERGE;
 import static jakarta.persistence.CascadeType.REMOVE;
 import jakarta.persistence.Column;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import io.github.augustoravazoli.bookapi.PooledSequenceGenerator;
 import io.github.augustoravazoli.bookapi.book.Book;
 
-@Table(name = "author")
+@Table(
+  name = "author",
+  uniqueConstraints = @UniqueConstraint(name = Author.EMAIL_CONSTRAINT, columnNames = "email"),
+  indexes = @Index(name = "idx_author_name_id", columnList = "name, id")
+)
+@EntityListeners(AuthorCacheEvictor.class)
 @Entity
 public class Author {
 
+  static final String EMAIL_CONSTRAINT = "uk_author_email";
+
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @GeneratedValue(generator = "author_seq")
+  @GenericGenerator(
+    name = "author_seq",
+    type = PooledSequenceGenerator.class,
+    parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "author_seq")
+  )
   private Long id;
 
+  @Version
+  private long version;
+
   @Column(nullable = false)
   private String name;
 
-  @Column(nullable = false, unique = true)
+  @Column(nullable = false)
   private String email;
 
   @ManyToMany(mappedBy = "authors", cascade = { MERGE, REMOVE })
@@ -41,6 +63,10 @@ public class Author {
     return id;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
   public String getName() {
     return name;
   }
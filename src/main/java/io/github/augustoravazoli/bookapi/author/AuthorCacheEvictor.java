@@ -0,0 +1,23 @@
+package io.github.augustoravazoli.bookapi.author;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+class AuthorCacheEvictor {
+
+  private final Cache cache;
+
+  public AuthorCacheEvictor(CacheManager cacheManager) {
+    this.cache = new TransactionAwareCacheDecorator(cacheManager.getCache("authors"));
+  }
+
+  @PostUpdate
+  @PostRemove
+  void evict(Author author) {
+    cache.evict(author.getId());
+  }
+
+}
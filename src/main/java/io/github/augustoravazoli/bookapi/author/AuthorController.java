@@ -1,6 +1,8 @@
 package io.github.augustoravazoli.bookapi.author;
 
+import java.util.Set;
 import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,11 +10,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.util.UriComponentsBuilder;
 import jakarta.validation.Valid;
-import io.github.augustoravazoli.bookapi.book.BookMapper;
+import io.github.augustoravazoli.bookapi.Cursor;
+import io.github.augustoravazoli.bookapi.ETags;
+import io.github.augustoravazoli.bookapi.InvalidParametersException;
+import io.github.augustoravazoli.bookapi.WireFormats;
 
 @RequestMapping("/api/authors")
 @Controller
@@ -20,12 +29,12 @@ class AuthorController {
   
   private final AuthorService authorService;
   private final AuthorMapper authorMapper;
-  private final BookMapper bookMapper;
+  private final WireFormats wireFormats;
 
-  public AuthorController(AuthorService authorService, AuthorMapper authorMapper, BookMapper bookMapper) {
+  public AuthorController(AuthorService authorService, AuthorMapper authorMapper, WireFormats wireFormats) {
     this.authorService = authorService;
     this.authorMapper = authorMapper;
-    this.bookMapper = bookMapper;
+    this.wireFormats = wireFormats;
   }
 
   @PostMapping
@@ -47,24 +56,71 @@ class AuthorController {
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<?> findAuthor(@PathVariable long id) {
+  public ResponseEntity<?> findAuthor(
+    @PathVariable long id,
+    NativeWebRequest request
+  ) throws HttpMediaTypeNotAcceptableException {
+    var format = wireFormats.negotiate(request);
     var author = Stream.of(id)
       .map(authorService::findAuthor)
-      .map(authorMapper::toResponse)
       .findAny()
       .get();
-    return ResponseEntity.ok(author);
+    return ResponseEntity.ok().eTag(ETags.of(author.version(), format.contentType())).body(author);
+  }
+
+  @GetMapping
+  public ResponseEntity<?> findAllAuthors(AuthorFilter filter, Pageable page) {
+    var authors = authorService.findAllAuthors(filter, page);
+    var response = ResponseEntity.ok();
+    authorService.countAuthors(filter)
+      .ifPresent(count -> response.header("X-Total-Count", String.valueOf(count)));
+    return response.body(authors.getContent());
+  }
+
+  @GetMapping(params = { "fields", "!after" })
+  public ResponseEntity<?> findAllAuthorFields(@RequestParam String fields, AuthorFilter filter, Pageable page) {
+    var authors = authorService.findAllAuthors(filter, fields, page);
+    var response = ResponseEntity.ok();
+    authorService.countAuthors(filter)
+      .ifPresent(count -> response.header("X-Total-Count", String.valueOf(count)));
+    return response.body(authors.getContent());
+  }
+
+  // Cursor pages aren't projected, so fields is rejected instead of ignored
+  @GetMapping(params = "after")
+  public ResponseEntity<?> findAllAuthorsAfter(
+    @RequestParam String after,
+    @RequestParam(required = false) String fields,
+    AuthorFilter filter,
+    Pageable page
+  ) {
+    if (fields != null) {
+      throw new InvalidParametersException("after", "fields");
+    }
+    var authors = authorService.findAllAuthorsAfter(filter, Cursor.decodeKey(after), page.getPageSize());
+    var response = ResponseEntity.ok();
+    if (authors.hasNext()) {
+      var last = authors.getContent().get(authors.getNumberOfElements() - 1);
+      response.header("X-Next-Cursor", Cursor.encode(new Cursor.Key(last.name(), last.id())));
+    }
+    return response.body(authors.getContent());
   }
 
   @PutMapping("/{id}")
-  public ResponseEntity<?> editAuthor(@PathVariable long id, @Valid @RequestBody AuthorRequest newAuthor) {
+  public ResponseEntity<?> editAuthor(
+    @PathVariable long id,
+    @Valid @RequestBody AuthorRequest newAuthor,
+    @RequestHeader(name = "If-Match", required = false) String ifMatch,
+    NativeWebRequest request
+  ) throws HttpMediaTypeNotAcceptableException {
+    var format = wireFormats.negotiate(request);
     var editedAuthor = Stream.of(newAuthor)
       .map(authorMapper::toEntity)
-      .map(author -> authorService.editAuthor(id, author))
+      .map(author -> authorService.editAuthor(id, author, ETags.version(ifMatch)))
       .map(authorMapper::toResponse)
       .findAny()
       .get();
-    return ResponseEntity.ok(editedAuthor);
+    return ResponseEntity.ok().eTag(ETags.of(editedAuthor.version(), format.contentType())).body(editedAuthor);
   }
 
   @DeleteMapping("/{id}")
@@ -75,11 +131,19 @@ class AuthorController {
 
   @GetMapping("/{id}/books")
   public ResponseEntity<?> findAuthorBooks(@PathVariable long id) {
-    var books = authorService.findAuthorBooks(id)
-      .stream()
-      .map(bookMapper::toResponse)
-      .toList();
-    return ResponseEntity.ok(books);
+    return ResponseEntity.ok(authorService.findAuthorBooks(id));
+  }
+
+  @PutMapping("/{id}/books")
+  public ResponseEntity<?> setAuthorBooks(@PathVariable long id, @RequestBody Set<Long> bookIds) {
+    authorService.setAuthorBooks(id, bookIds);
+    return ResponseEntity.noContent().build();
+  }
+
+  @PostMapping("/{id}/books")
+  public ResponseEntity<?> addAuthorBooks(@PathVariable long id, @RequestBody Set<Long> bookIds) {
+    authorService.addAuthorBooks(id, bookIds);
+    return ResponseEntity.noContent().build();
   }
 
   @PutMapping("/{author-id}/books/{book-id}")
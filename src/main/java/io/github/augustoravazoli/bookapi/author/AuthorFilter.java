@@ -0,0 +1,22 @@
+package io.github.augustoravazoli.bookapi.author;
+
+import org.springframework.data.jpa.domain.Specification;
+import static io.github.augustoravazoli.bookapi.FilterQueries.joinedTo;
+import static io.github.augustoravazoli.bookapi.FilterQueries.startsWith;
+
+record AuthorFilter(String namePrefix, Long bookId) {
+
+  static final AuthorFilter NONE = new AuthorFilter(null, null);
+
+  boolean isEmpty() {
+    return equals(NONE);
+  }
+
+  Specification<Author> toSpecification() {
+    return Specification.allOf(
+      startsWith("name", namePrefix),
+      joinedTo("books", bookId)
+    );
+  }
+
+}
@@ -0,0 +1,28 @@
+package io.github.augustoravazoli.bookapi.author;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+import io.github.augustoravazoli.bookapi.Cursor;
+
+@Transactional(readOnly = true)
+interface AuthorFilterRepository {
+
+  List<String> FIELDS = List.of("id", "name", "email");
+
+  Slice<AuthorResponse> findAll(AuthorFilter filter, Pageable page);
+
+  Slice<Map<String, Object>> findAll(AuthorFilter filter, List<String> fields, Pageable page);
+
+  Slice<AuthorResponse> findAllAfter(AuthorFilter filter, Cursor.Key after, int size);
+
+  long count(AuthorFilter filter);
+
+  List<AuthorResponse> findAllOfBook(long id);
+
+  Map<Long, List<AuthorResponse>> findAllOfBooks(Collection<Long> ids);
+
+}
@@ -0,0 +1,109 @@
+package io.github.augustoravazoli.bookapi.author;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import io.github.augustoravazoli.bookapi.Cursor;
+import io.github.augustoravazoli.bookapi.FilterQueries;
+
+class AuthorFilterRepositoryImpl implements AuthorFilterRepository {
+
+  private static final List<String> RESPONSE_ATTRIBUTES = List.of("id", "name", "email", "version");
+
+  private final EntityManager entityManager;
+
+  public AuthorFilterRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public Slice<AuthorResponse> findAll(AuthorFilter filter, Pageable page) {
+    return FilterQueries.findSlice(
+      entityManager,
+      Author.class,
+      AuthorResponse.class,
+      RESPONSE_ATTRIBUTES,
+      filter.toSpecification(),
+      page
+    );
+  }
+
+  @Override
+  public Slice<Map<String, Object>> findAll(AuthorFilter filter, List<String> fields, Pageable page) {
+    return FilterQueries.findFields(entityManager, Author.class, fields, filter.toSpecification(), page);
+  }
+
+  @Override
+  public Slice<AuthorResponse> findAllAfter(AuthorFilter filter, Cursor.Key after, int size) {
+    Specification<Author> afterKey = after == null ? null : (root, query, builder) -> builder.or(
+      builder.greaterThan(root.get("name"), after.value()),
+      builder.and(builder.equal(root.get("name"), after.value()), builder.greaterThan(root.get("id"), after.id()))
+    );
+    return FilterQueries.findSlice(
+      entityManager,
+      Author.class,
+      AuthorResponse.class,
+      RESPONSE_ATTRIBUTES,
+      filter.toSpecification().and(afterKey),
+      PageRequest.of(0, size, Sort.by("name", "id"))
+    );
+  }
+
+  @Override
+  public long count(AuthorFilter filter) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createQuery(Long.class);
+    var root = query.from(Author.class);
+    var predicate = filter.toSpecification().toPredicate(root, query, builder);
+    query.select(builder.count(root));
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  @Override
+  public List<AuthorResponse> findAllOfBook(long id) {
+    return entityManager.createQuery("""
+      SELECT new io.github.augustoravazoli.bookapi.author.AuthorResponse(a.id, a.name, a.email, a.version)
+      FROM Book b JOIN b.authors a WHERE b.id = :id ORDER BY a.id
+      """, AuthorResponse.class)
+      .setParameter("id", id)
+      .getResultList();
+  }
+
+  @Override
+  public Map<Long, List<AuthorResponse>> findAllOfBooks(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    var rows = entityManager.createQuery("""
+      SELECT b.id AS bookId, a.id AS id, a.name AS name, a.email AS email, a.version AS version
+      FROM Book b JOIN b.authors a WHERE b.id IN :ids ORDER BY a.id
+      """, Tuple.class)
+      .setParameter("ids", ids)
+      .getResultList();
+    var authorsByBook = new HashMap<Long, List<AuthorResponse>>();
+    for (var row : rows) {
+      authorsByBook
+        .computeIfAbsent(row.get("bookId", Long.class), bookId -> new ArrayList<>())
+        .add(new AuthorResponse(
+          row.get("id", Long.class),
+          row.get("name", String.class),
+          row.get("email", String.class),
+          row.get("version", Long.class)
+        ));
+    }
+    return authorsByBook;
+  }
+
+}
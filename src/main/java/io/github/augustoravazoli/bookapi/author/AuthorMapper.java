@@ -16,7 +16,8 @@ public class AuthorMapper {
     return new AuthorResponse(
       author.getId(),
       author.getName(),
-      author.getEmail()
+      author.getEmail(),
+      author.getVersion()
     );
   }
 
@@ -1,12 +1,18 @@
 package io.github.augustoravazoli.bookapi.author;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AuthorRepository extends JpaRepository<Author, Long> {
+public interface AuthorRepository extends JpaRepository<Author, Long>, AuthorFilterRepository {
 
-  List<Author> findAllByBooksId(long id);
+  @Transactional(readOnly = true)
+  Optional<AuthorResponse> findResponseById(long id);
 
-  boolean existsByEmail(String email);
+  @Query("SELECT a.id FROM Author a WHERE a.id IN :ids")
+  Set<Long> findIdsIn(Collection<Long> ids);
 
 }
@@ -1,7 +1,10 @@
 package io.github.augustoravazoli.bookapi.author;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public record AuthorResponse(
   long id,
   String name,
-  String email
+  String email,
+  @JsonIgnore long version
 ) {}
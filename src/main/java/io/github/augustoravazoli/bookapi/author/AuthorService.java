@@ -1,81 +1,213 @@
 package io.github.augustoravazoli.bookapi.author;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
-import io.github.augustoravazoli.bookapi.book.Book;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.github.augustoravazoli.bookapi.BookApiProperties;
+import io.github.augustoravazoli.bookapi.Cursor;
+import io.github.augustoravazoli.bookapi.FilterQueries;
+import io.github.augustoravazoli.bookapi.InvalidIdException;
+import io.github.augustoravazoli.bookapi.InvalidSortException;
+import io.github.augustoravazoli.bookapi.OptimisticLocking;
+import io.github.augustoravazoli.bookapi.TotalCount;
+import io.github.augustoravazoli.bookapi.UniqueConstraints;
 import io.github.augustoravazoli.bookapi.book.BookNotFoundException;
 import io.github.augustoravazoli.bookapi.book.BookRepository;
+import io.github.augustoravazoli.bookapi.book.BookResponse;
 
 @Service
 class AuthorService {
 
+  private static final Set<String> SORTABLE = Set.of("name", "id");
+
   private final AuthorRepository authorRepository;
   private final BookRepository bookRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final TotalCount totalCount;
 
-  public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository) {
+  public AuthorService(
+    AuthorRepository authorRepository,
+    BookRepository bookRepository,
+    BookApiProperties properties,
+    PlatformTransactionManager transactionManager
+  ) {
     this.authorRepository = authorRepository;
     this.bookRepository = bookRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.totalCount = new TotalCount(properties.pagination(), authorRepository::count);
   }
 
+  @Transactional
   public Author createAuthor(Author author) {
-    if (authorRepository.existsByEmail(author.getEmail())) {
-      throw new EmailAlreadyInUseException(author.getEmail());
-    }
-    return authorRepository.save(author);
+    return saveAuthor(author);
   }
 
-  public Author findAuthor(long id) {
+  @Cacheable("authors")
+  public AuthorResponse findAuthor(long id) {
     return authorRepository
-      .findById(id)
+      .findResponseById(id)
       .orElseThrow(() -> new AuthorNotFoundException(id));
   }
 
-  public Author editAuthor(long id, Author newAuthor) {
-    return authorRepository
+  @Transactional(readOnly = true)
+  public Slice<AuthorResponse> findAllAuthors(AuthorFilter filter, Pageable page) {
+    return authorRepository.findAll(filter, sorted(page));
+  }
+
+  @Transactional(readOnly = true)
+  public Slice<Map<String, Object>> findAllAuthors(AuthorFilter filter, String fields, Pageable page) {
+    return authorRepository.findAll(filter, FilterQueries.fields(fields, AuthorFilterRepository.FIELDS), sorted(page));
+  }
+
+  @Transactional(readOnly = true)
+  public Slice<AuthorResponse> findAllAuthorsAfter(AuthorFilter filter, Cursor.Key after, int size) {
+    return authorRepository.findAllAfter(filter, after, size);
+  }
+
+  public OptionalLong countAuthors(AuthorFilter filter) {
+    if (filter.isEmpty()) {
+      return totalCount.get();
+    }
+    return totalCount.getIfExact(() -> authorRepository.count(filter));
+  }
+
+  public Author editAuthor(long id, Author newAuthor, OptionalLong expectedVersion) {
+    return OptimisticLocking.edit(transactionTemplate, expectedVersion, () -> authorRepository
       .findById(id)
       .map(author -> {
-        if (!newAuthor.getEmail().equals(author.getEmail()) 
-          && authorRepository.existsByEmail(newAuthor.getEmail())
-        ) {
-          throw new EmailAlreadyInUseException(newAuthor.getEmail());
-        }
+        OptimisticLocking.requireVersion(expectedVersion, author.getVersion());
         author.setName(newAuthor.getName());
         author.setEmail(newAuthor.getEmail());
-        return authorRepository.save(author);
+        return saveAuthor(author);
       })
-      .orElseThrow(() -> new AuthorNotFoundException(id));
+      .orElseThrow(() -> new AuthorNotFoundException(id))
+    );
   }
 
+  @Transactional
   public void deleteAuthor(long id) {
-    if (!authorRepository.existsById(id)) {
-      throw new AuthorNotFoundException(id);
-    }
-    authorRepository.deleteById(id);
+    var author = authorRepository.findById(id).orElseThrow(() -> new AuthorNotFoundException(id));
+    authorRepository.delete(author);
   }
 
-  public List<Book> findAuthorBooks(long id) {
-    if (!authorRepository.existsById(id)) {
+  @Transactional(readOnly = true)
+  public List<BookResponse> findAuthorBooks(long id) {
+    var books = bookRepository.findAllOfAuthor(id);
+    if (books.isEmpty() && !authorRepository.existsById(id)) {
       throw new AuthorNotFoundException(id);
     }
-    return bookRepository.findAllByAuthorsId(id);
+    return books;
   }
 
+  @Caching(evict = {
+    @CacheEvict(cacheNames = "authors", key = "#authorId"),
+    @CacheEvict(cacheNames = "books", key = "#bookId")
+  })
+  @Transactional
   public void addBookToAuthor(long authorId, long bookId) {
-    var author = authorRepository.findById(authorId)
-      .orElseThrow(() -> new AuthorNotFoundException(authorId));
-    var book = bookRepository.findById(bookId)
-      .orElseThrow(() -> new BookNotFoundException(bookId));
-    author.addBook(book);
-    authorRepository.save(author);
+    if (bookRepository.linkAuthor(bookId, authorId) == 0) {
+      requireAuthorAndBook(authorId, bookId);
+    }
   }
 
+  @Caching(evict = {
+    @CacheEvict(cacheNames = "authors", key = "#authorId"),
+    @CacheEvict(cacheNames = "books", key = "#bookId")
+  })
+  @Transactional
   public void removeBookFromAuthor(long authorId, long bookId) {
-    var author = authorRepository.findById(authorId)
-      .orElseThrow(() -> new AuthorNotFoundException(authorId));
-    var book = bookRepository.findById(bookId)
-      .orElseThrow(() -> new BookNotFoundException(bookId));
-    author.removeBook(book);
-    authorRepository.save(author);
+    if (bookRepository.unlinkAuthor(bookId, authorId) == 0) {
+      requireAuthorAndBook(authorId, bookId);
+    }
+  }
+
+  @Transactional
+  @CacheEvict(cacheNames = "authors", key = "#authorId")
+  public void setAuthorBooks(long authorId, Set<Long> bookIds) {
+    requireAuthorAndBooks(authorId, bookIds);
+    if (bookIds.isEmpty()) {
+      bookRepository.unlinkAllBooks(authorId);
+      return;
+    }
+    bookRepository.unlinkBooksExcept(authorId, bookIds);
+    bookRepository.linkBooks(authorId, bookIds);
+  }
+
+  @Transactional
+  @CacheEvict(cacheNames = "authors", key = "#authorId")
+  public void addAuthorBooks(long authorId, Set<Long> bookIds) {
+    requireAuthorAndBooks(authorId, bookIds);
+    if (!bookIds.isEmpty()) {
+      bookRepository.linkBooks(authorId, bookIds);
+    }
+  }
+
+  private Author saveAuthor(Author author) {
+    try {
+      return authorRepository.saveAndFlush(author);
+    } catch (DataIntegrityViolationException ex) {
+      if (UniqueConstraints.isViolated(ex, Author.EMAIL_CONSTRAINT)) {
+        throw new EmailAlreadyInUseException(author.getEmail());
+      }
+      throw ex;
+    }
+  }
+
+  private void requireAuthorAndBooks(long authorId, Set<Long> bookIds) {
+    if (bookIds.stream().anyMatch(Objects::isNull)) {
+      throw new InvalidIdException();
+    }
+    if (!authorRepository.existsById(authorId)) {
+      throw new AuthorNotFoundException(authorId);
+    }
+    if (bookIds.isEmpty()) {
+      return;
+    }
+    var existingIds = bookRepository.findIdsIn(bookIds);
+    bookIds.stream()
+      .filter(id -> !existingIds.contains(id))
+      .findFirst()
+      .ifPresent(id -> {
+        throw new BookNotFoundException(id);
+      });
+  }
+
+  private void requireAuthorAndBook(long authorId, long bookId) {
+    if (!authorRepository.existsById(authorId)) {
+      throw new AuthorNotFoundException(authorId);
+    }
+    if (!bookRepository.existsById(bookId)) {
+      throw new BookNotFoundException(bookId);
+    }
+  }
+
+  private Pageable sorted(Pageable page) {
+    page.getSort()
+      .filter(order -> !SORTABLE.contains(order.getProperty()))
+      .stream()
+      .findFirst()
+      .ifPresent(order -> {
+        throw new InvalidSortException(order.getProperty());
+      });
+    var sort = page.getSortOr(Sort.by("name"));
+    if (sort.getOrderFor("id") == null) {
+      sort = sort.and(Sort.by("id"));
+    }
+    return PageRequest.of(page.getPageNumber(), page.getPageSize(), sort);
   }
 
 }
@@ -3,41 +3,68 @@ package io.github.augustoravazoli.bookapi.book;
 import java.util.HashSet;
 import java.util.Set;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
-import static jakarta.persistence.GenerationType.IDENTITY;
 import static jakarta.persistence.CascadeType.MERGE;
 import static jakarta.persistence.CascadeType.REMOVE;
 import jakarta.persistence.Column;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import io.github.augustoravazoli.bookapi.PooledSequenceGenerator;
 import io.github.augustoravazoli.bookapi.author.Author;
 
-@Table(name = "book")
+@Table(
+  name = "book",
+  uniqueConstraints = {
+    @UniqueConstraint(name = Book.TITLE_CONSTRAINT, columnNames = "title"),
+    @UniqueConstraint(name = Book.ISBN_CONSTRAINT, columnNames = "isbn")
+  },
+  indexes = @Index(name = "idx_book_published_id", columnList = "published, id")
+)
+@EntityListeners({ BookCacheEvictor.class, BookSearchIndexer.class })
 @Entity
 public class Book {
 
+  static final String TITLE_CONSTRAINT = "uk_book_title";
+  static final String ISBN_CONSTRAINT = "uk_book_isbn";
+
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @GeneratedValue(generator = "book_seq")
+  @GenericGenerator(
+    name = "book_seq",
+    type = PooledSequenceGenerator.class,
+    parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_seq")
+  )
   private Long id;
 
-  @Column(nullable = false, unique = true)
+  @Version
+  private long version;
+
+  @Column(nullable = false)
   private String title;
 
   @ManyToMany(cascade = { MERGE, REMOVE })
   @JoinTable(
     name = "book_author",
     joinColumns = @JoinColumn(name = "book_id"),
-    inverseJoinColumns = @JoinColumn(name = "author_id")
+    inverseJoinColumns = @JoinColumn(name = "author_id"),
+    indexes = @Index(name = "idx_book_author_book_id", columnList = "book_id, author_id")
   )
   private Set<Author> authors = new HashSet<>();
 
   @Column(nullable = false)
   private String description;
 
-  @Column(nullable = false, unique = true)
+  @Column(nullable = false)
   private String isbn;
 
   private boolean published;
@@ -55,6 +82,10 @@ public class Book {
     return id;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
   public String getTitle() {
     return title;
   }
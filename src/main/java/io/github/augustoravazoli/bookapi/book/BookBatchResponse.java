@@ -0,0 +1,27 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+import org.springframework.web.server.ResponseStatusException;
+
+public record BookBatchResponse(
+  int index,
+  int status,
+  BookResponse book,
+  String message
+) {
+
+  static BookBatchResponse created(int index, BookResponse book) {
+    return new BookBatchResponse(index, CREATED.value(), book, null);
+  }
+
+  static BookBatchResponse conflict(int index, ResponseStatusException ex) {
+    return new BookBatchResponse(index, CONFLICT.value(), null, ex.getReason());
+  }
+
+  static BookBatchResponse invalid(int index, String message) {
+    return new BookBatchResponse(index, UNPROCESSABLE_ENTITY.value(), null, message);
+  }
+
+}
@@ -0,0 +1,23 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+class BookCacheEvictor {
+
+  private final Cache cache;
+
+  public BookCacheEvictor(CacheManager cacheManager) {
+    this.cache = new TransactionAwareCacheDecorator(cacheManager.getCache("books"));
+  }
+
+  @PostUpdate
+  @PostRemove
+  void evict(Book book) {
+    cache.evict(book.getId());
+  }
+
+}
@@ -1,7 +1,14 @@
 package io.github.augustoravazoli.bookapi.book;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,11 +16,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import io.github.augustoravazoli.bookapi.author.AuthorMapper;
+import io.github.augustoravazoli.bookapi.Cursor;
+import io.github.augustoravazoli.bookapi.ETags;
+import io.github.augustoravazoli.bookapi.InvalidParametersException;
+import io.github.augustoravazoli.bookapi.WireFormats;
 
 @RequestMapping("/api/books")
 @Controller
@@ -21,12 +40,23 @@ class BookController {
 
   private final BookService bookService;
   private final BookMapper bookMapper;
-  private final AuthorMapper authorMapper;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter bookWriter;
+  private final WireFormats wireFormats;
 
-  public BookController(BookService bookService, BookMapper bookMapper, AuthorMapper authorMapper) {
+  public BookController(
+    BookService bookService,
+    BookMapper bookMapper,
+    ObjectMapper objectMapper,
+    WireFormats wireFormats
+  ) {
     this.bookService = bookService;
     this.bookMapper = bookMapper;
-    this.authorMapper = authorMapper;
+    this.objectMapper = objectMapper;
+    this.bookWriter = objectMapper
+      .writerFor(BookResponse.class)
+      .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.wireFormats = wireFormats;
   }
 
   @PostMapping
@@ -44,34 +74,164 @@ class BookController {
     return ResponseEntity.created(location).body(savedBook);
   }
 
+  @PostMapping("/batch")
+  public ResponseEntity<?> createBooks(@RequestBody List<BookRequest> books) {
+    return ResponseEntity.ok(bookService.createBooks(books));
+  }
+
   @GetMapping("/{id}")
-  public ResponseEntity<?> findBook(@PathVariable long id) {
+  public ResponseEntity<?> findBook(
+    @PathVariable long id,
+    NativeWebRequest request
+  ) throws HttpMediaTypeNotAcceptableException {
+    var format = wireFormats.negotiate(request);
     var book = Stream.of(id)
       .map(bookService::findBook)
-      .map(bookMapper::toResponse)
       .findAny()
       .get();
-    return ResponseEntity.ok(book);
+    return ResponseEntity.ok().eTag(ETags.of(book.version(), format.contentType())).body(book);
   }
 
+  // Linking authors doesn't bump the book version, so expanded responses carry no ETag
+  @GetMapping(value = "/{id}", params = "expand=authors")
+  public ResponseEntity<?> findBookWithAuthors(@PathVariable long id) {
+    return ResponseEntity.ok(bookService.findBookWithAuthors(id));
+  }
+
+  // Pages are read and written a chunk at a time, so neither a connection nor the whole page is held while a slow
+  // client drains the response. Revalidations read only the (id, version) pairs, so a 304 skips the count and the page
   @GetMapping
-  public ResponseEntity<?> findAllBooks(Pageable page) {
-    var books = bookService.findAllBooks(page)
-      .map(bookMapper::toResponse);
+  public void findAllBooks(
+    BookFilter filter,
+    Pageable page,
+    NativeWebRequest request,
+    HttpServletResponse response
+  ) throws IOException, HttpMediaTypeNotAcceptableException {
+    var format = wireFormats.negotiate(request);
+    var versions = request.getHeader(HttpHeaders.IF_NONE_MATCH) == null ? null : bookService.findBookVersions(filter, page);
+    if (versions != null && request.checkNotModified(ETags.of(format.contentType(), filter, page, versions))) {
+      return;
+    }
+    var count = bookService.countBooks(filter);
+    var chunks = bookService.findAllBooks(filter, page);
+    var chunk = chunks.next();
+    // The tag goes out before the rows, so pages longer than a chunk read their versions first
+    if (versions == null) {
+      versions = chunks.hasNext() ? bookService.findBookVersions(filter, page) : versionsOf(chunk);
+      response.setHeader(HttpHeaders.ETAG, ETags.of(format.contentType(), filter, page, versions));
+    }
+    count.ifPresent(total -> response.setHeader("X-Total-Count", String.valueOf(total)));
+    response.setContentType(format.contentType().toString());
+    var writer = format.writerFor(BookResponse.class);
+    try (var generator = format.mapper().createGenerator(response.getOutputStream())) {
+      generator.writeStartArray();
+      for (var book : chunk) {
+        writer.writeValue(generator, book);
+      }
+      while (chunks.hasNext()) {
+        for (var book : chunks.next()) {
+          writer.writeValue(generator, book);
+        }
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  @GetMapping(params = { "fields", "!after", "!expand" })
+  public ResponseEntity<?> findAllBookFields(
+    @RequestParam String fields,
+    BookFilter filter,
+    Pageable page,
+    NativeWebRequest request
+  ) throws HttpMediaTypeNotAcceptableException {
+    var format = wireFormats.negotiate(request);
+    var count = bookService.countBooks(filter);
+    var books = bookService.findAllBooks(filter, fields, page).getContent();
+    var response = ResponseEntity.ok().eTag(ETags.of(format.contentType(), fields, filter, page, books));
+    count.ifPresent(total -> response.header("X-Total-Count", String.valueOf(total)));
+    return response.body(books);
+  }
+
+  @GetMapping(params = { "expand=authors", "!after" })
+  public ResponseEntity<?> findAllBooksWithAuthors(
+    @RequestParam(required = false) String fields,
+    BookFilter filter,
+    Pageable page
+  ) {
+    if (fields != null) {
+      throw new InvalidParametersException("fields", "expand");
+    }
+    var books = bookService.findAllBooksWithAuthors(filter, page);
+    var response = ResponseEntity.ok();
+    bookService.countBooks(filter)
+      .ifPresent(count -> response.header("X-Total-Count", String.valueOf(count)));
+    return response.body(books.getContent());
+  }
+
+  // Cursor pages are neither projected nor expanded, so those parameters are rejected instead of ignored
+  @GetMapping(params = "after")
+  public ResponseEntity<?> findAllBooksAfter(
+    @RequestParam String after,
+    @RequestParam(required = false) String fields,
+    @RequestParam(required = false) String expand,
+    BookFilter filter,
+    Pageable page
+  ) {
+    if (fields != null) {
+      throw new InvalidParametersException("after", "fields");
+    }
+    if (expand != null) {
+      throw new InvalidParametersException("after", "expand");
+    }
+    var books = bookService.findAllBooksAfter(filter, Cursor.decode(after), page.getPageSize());
+    var response = ResponseEntity.ok();
+    if (books.hasNext()) {
+      var last = books.getContent().get(books.getNumberOfElements() - 1);
+      response.header("X-Next-Cursor", Cursor.encode(last.id()));
+    }
+    return response.body(books.getContent());
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<?> searchBooks(@RequestParam String q, Pageable page) {
+    var books = bookService.searchBooks(q, page);
     return ResponseEntity.ok()
       .header("X-Total-Count", String.valueOf(books.getTotalElements()))
       .body(books.getContent());
   }
 
+  @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportBooks() {
+    StreamingResponseBody body = output -> {
+      try (var generator = objectMapper.createGenerator(output).setRootValueSeparator(null)) {
+        bookService.exportBooks(book -> {
+          try {
+            bookWriter.writeValue(generator, book);
+            generator.writeRaw('\n');
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+  }
+
   @PutMapping("/{id}")
-  public ResponseEntity<?> editBook(@PathVariable long id, @Valid @RequestBody BookRequest newBook) {
+  public ResponseEntity<?> editBook(
+    @PathVariable long id,
+    @Valid @RequestBody BookRequest newBook,
+    @RequestHeader(name = "If-Match", required = false) String ifMatch,
+    NativeWebRequest request
+  ) throws HttpMediaTypeNotAcceptableException {
+    var format = wireFormats.negotiate(request);
     var editedBook = Stream.of(newBook)
       .map(bookMapper::toEntity)
-      .map(book -> bookService.editBook(id, book))
+      .map(book -> bookService.editBook(id, book, ETags.version(ifMatch)))
       .map(bookMapper::toResponse)
       .findAny()
       .get();
-    return ResponseEntity.ok(editedBook);
+    return ResponseEntity.ok().eTag(ETags.of(editedBook.version(), format.contentType())).body(editedBook);
   }
 
   @DeleteMapping("/{id}")
@@ -82,11 +242,19 @@ class BookController {
 
   @GetMapping("/{id}/authors")
   public ResponseEntity<?> findBookAuthors(@PathVariable long id) {
-    var authors = bookService.findBookAuthors(id)
-      .stream()
-      .map(authorMapper::toResponse)
-      .toList();
-    return ResponseEntity.ok(authors);
+    return ResponseEntity.ok(bookService.findBookAuthors(id));
+  }
+
+  @PutMapping("/{id}/authors")
+  public ResponseEntity<?> setBookAuthors(@PathVariable long id, @RequestBody Set<Long> authorIds) {
+    bookService.setBookAuthors(id, authorIds);
+    return ResponseEntity.noContent().build();
+  }
+
+  @PostMapping("/{id}/authors")
+  public ResponseEntity<?> addBookAuthors(@PathVariable long id, @RequestBody Set<Long> authorIds) {
+    bookService.addBookAuthors(id, authorIds);
+    return ResponseEntity.noContent().build();
   }
 
   @PutMapping("/{book-id}/authors/{author-id}")
@@ -107,4 +275,8 @@ class BookController {
     return ResponseEntity.noContent().build();
   }
 
+  private static List<BookFilterRepository.Version> versionsOf(List<BookResponse> books) {
+    return books.stream().map(book -> new BookFilterRepository.Version(book.id(), book.version())).toList();
+  }
+
 }
@@ -0,0 +1,25 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import org.springframework.data.jpa.domain.Specification;
+import static io.github.augustoravazoli.bookapi.FilterQueries.equalTo;
+import static io.github.augustoravazoli.bookapi.FilterQueries.joinedTo;
+import static io.github.augustoravazoli.bookapi.FilterQueries.startsWith;
+
+record BookFilter(Boolean published, Long authorId, String isbnPrefix, String titlePrefix) {
+
+  static final BookFilter NONE = new BookFilter(null, null, null, null);
+
+  boolean isEmpty() {
+    return equals(NONE);
+  }
+
+  Specification<Book> toSpecification() {
+    return Specification.allOf(
+      equalTo("published", published),
+      joinedTo("authors", authorId),
+      startsWith("isbn", isbnPrefix),
+      startsWith("title", titlePrefix)
+    );
+  }
+
+}
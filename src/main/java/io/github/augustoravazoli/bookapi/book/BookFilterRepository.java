@@ -0,0 +1,30 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+interface BookFilterRepository {
+
+  List<String> FIELDS = List.of("id", "title", "description", "isbn", "published");
+
+  record Version(long id, long version) {}
+
+  Slice<BookResponse> findAll(BookFilter filter, Pageable page);
+
+  Slice<Map<String, Object>> findAll(BookFilter filter, List<String> fields, Pageable page);
+
+  List<BookResponse> findChunk(BookFilter filter, Pageable page, BookResponse last, int size);
+
+  List<Version> findVersions(BookFilter filter, Pageable page);
+
+  Slice<BookResponse> findAllAfter(BookFilter filter, long id, int size);
+
+  long count(BookFilter filter);
+
+  List<BookResponse> findAllOfAuthor(long id);
+
+}
@@ -0,0 +1,122 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.EntityManager;
+import io.github.augustoravazoli.bookapi.FilterQueries;
+
+class BookFilterRepositoryImpl implements BookFilterRepository {
+
+  private static final List<String> RESPONSE_ATTRIBUTES = List.of(
+    "id", "title", "description", "isbn", "published", "version"
+  );
+
+  private final EntityManager entityManager;
+
+  public BookFilterRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public Slice<BookResponse> findAll(BookFilter filter, Pageable page) {
+    return FilterQueries.findSlice(
+      entityManager,
+      Book.class,
+      BookResponse.class,
+      RESPONSE_ATTRIBUTES,
+      filter.toSpecification(),
+      page
+    );
+  }
+
+  @Override
+  public Slice<Map<String, Object>> findAll(BookFilter filter, List<String> fields, Pageable page) {
+    return FilterQueries.findFields(entityManager, Book.class, fields, filter.toSpecification(), page);
+  }
+
+  // The first chunk starts at the page offset, later ones right after the last row read
+  @Override
+  public List<BookResponse> findChunk(BookFilter filter, Pageable page, BookResponse last, int size) {
+    var specification = filter.toSpecification();
+    if (last != null) {
+      specification = specification.and(FilterQueries.after(page.getSort(), attribute -> valueOf(last, attribute)));
+    }
+    return FilterQueries.findList(
+      entityManager,
+      Book.class,
+      BookResponse.class,
+      RESPONSE_ATTRIBUTES,
+      specification,
+      page.getSort(),
+      last == null ? page.getOffset() : 0,
+      size
+    );
+  }
+
+  @Override
+  public List<Version> findVersions(BookFilter filter, Pageable page) {
+    return FilterQueries.findList(
+      entityManager,
+      Book.class,
+      Version.class,
+      List.of("id", "version"),
+      filter.toSpecification(),
+      page
+    );
+  }
+
+  @Override
+  public Slice<BookResponse> findAllAfter(BookFilter filter, long id, int size) {
+    Specification<Book> after = (root, query, builder) -> builder.greaterThan(root.get("id"), id);
+    return FilterQueries.findSlice(
+      entityManager,
+      Book.class,
+      BookResponse.class,
+      RESPONSE_ATTRIBUTES,
+      filter.toSpecification().and(after),
+      PageRequest.of(0, size, Sort.by("id"))
+    );
+  }
+
+  @Override
+  public long count(BookFilter filter) {
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createQuery(Long.class);
+    var root = query.from(Book.class);
+    var predicate = filter.toSpecification().toPredicate(root, query, builder);
+    query.select(builder.count(root));
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  // Kept out of @Query, Spring Data JPA 3.1.0 parses declared queries again on every call
+  @Override
+  public List<BookResponse> findAllOfAuthor(long id) {
+    return entityManager.createQuery("""
+      SELECT new io.github.augustoravazoli.bookapi.book.BookResponse(b.id, b.title, b.description, b.isbn, b.published, b.version)
+      FROM Author a JOIN a.books b WHERE a.id = :id ORDER BY b.id
+      """, BookResponse.class)
+      .setParameter("id", id)
+      .getResultList();
+  }
+
+  private static Object valueOf(BookResponse book, String attribute) {
+    return switch (attribute) {
+      case "id" -> book.id();
+      case "title" -> book.title();
+      case "description" -> book.description();
+      case "isbn" -> book.isbn();
+      case "published" -> book.published();
+      case "version" -> book.version();
+      default -> throw new IllegalArgumentException("Unknown book attribute " + attribute);
+    };
+  }
+
+}
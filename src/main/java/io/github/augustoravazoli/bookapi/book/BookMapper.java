@@ -20,7 +20,8 @@ public class BookMapper {
       book.getTitle(),
       book.getDescription(),
       book.getIsbn(),
-      book.isPublished()
+      book.isPublished(),
+      book.getVersion()
     );
   }
 
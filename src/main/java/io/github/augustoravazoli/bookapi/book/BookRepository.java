@@ -1,14 +1,103 @@
 package io.github.augustoravazoli.bookapi.book;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.QueryHint;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookFilterRepository {
 
-  List<Book> findAllByAuthorsId(long id);
+  @Transactional(readOnly = true)
+  Optional<BookResponse> findResponseById(long id);
 
-  boolean existsByTitle(String title);
+  @Transactional(readOnly = true)
+  List<BookResponse> findResponsesByIdIn(Collection<Long> ids);
 
-  boolean existsByIsbn(String isbn);
+  @QueryHints({
+    @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT b FROM Book b ORDER BY b.id")
+  Stream<Book> streamAllBy();
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("""
+    SELECT new io.github.augustoravazoli.bookapi.book.BookResponse(b.id, b.title, b.description, b.isbn, b.published, b.version)
+    FROM Book b ORDER BY b.id
+    """)
+  Stream<BookResponse> streamAllResponses();
+
+  @Query("SELECT b.title FROM Book b WHERE b.title IN :titles")
+  Set<String> findTitlesIn(Collection<String> titles);
+
+  @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+  Set<String> findIsbnsIn(Collection<String> isbns);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = """
+    INSERT INTO book_author (book_id, author_id)
+    SELECT b.id, a.id FROM book b, author a
+    WHERE b.id = :bookId AND a.id = :authorId
+    AND NOT EXISTS (SELECT 1 FROM book_author WHERE book_id = :bookId AND author_id = :authorId)
+    """)
+  int linkAuthor(long bookId, long authorId);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = "DELETE FROM book_author WHERE book_id = :bookId AND author_id = :authorId")
+  int unlinkAuthor(long bookId, long authorId);
+
+  @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+  Set<Long> findIdsIn(Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = """
+    INSERT INTO book_author (book_id, author_id)
+    SELECT :bookId, a.id FROM author a
+    WHERE a.id IN :authorIds
+    AND NOT EXISTS (SELECT 1 FROM book_author WHERE book_id = :bookId AND author_id = a.id)
+    """)
+  int linkAuthors(long bookId, Collection<Long> authorIds);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = """
+    INSERT INTO book_author (book_id, author_id)
+    SELECT b.id, :authorId FROM book b
+    WHERE b.id IN :bookIds
+    AND NOT EXISTS (SELECT 1 FROM book_author WHERE book_id = b.id AND author_id = :authorId)
+    """)
+  int linkBooks(long authorId, Collection<Long> bookIds);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = "DELETE FROM book_author WHERE book_id = :bookId AND author_id NOT IN :authorIds")
+  int unlinkAuthorsExcept(long bookId, Collection<Long> authorIds);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = "DELETE FROM book_author WHERE author_id = :authorId AND book_id NOT IN :bookIds")
+  int unlinkBooksExcept(long authorId, Collection<Long> bookIds);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = "DELETE FROM book_author WHERE book_id = :bookId")
+  int unlinkAllAuthors(long bookId);
+
+  @Modifying
+  @Transactional
+  @Query(nativeQuery = true, value = "DELETE FROM book_author WHERE author_id = :authorId")
+  int unlinkAllBooks(long authorId);
 
 }
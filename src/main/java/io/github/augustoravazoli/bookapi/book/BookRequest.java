@@ -3,17 +3,21 @@ package io.github.augustoravazoli.bookapi.book;
 import org.hibernate.validator.constraints.ISBN;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 record BookRequest(
 
   @NotBlank
+  @Size(max = 255)
   String title,
 
   @NotBlank
+  @Size(max = 255)
   String description,
 
   @ISBN
   @NotBlank
+  @Size(max = 255)
   String isbn,
 
   @NotNull
@@ -1,9 +1,12 @@
 package io.github.augustoravazoli.bookapi.book;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public record BookResponse(
   long id,
   String title,
   String description,
   String isbn,
-  boolean published
+  boolean published,
+  @JsonIgnore long version
 ) {}
@@ -0,0 +1,151 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import jakarta.annotation.PreDestroy;
+
+@Component
+class BookSearchIndex {
+
+  record Hits(List<Long> ids, long total) {}
+
+  private static final String ID = "id";
+  private static final String TITLE = "title";
+  private static final String DESCRIPTION = "description";
+
+  private final Analyzer analyzer = new StandardAnalyzer();
+  private final IndexWriter writer;
+  private final SearcherManager searcherManager;
+  private volatile boolean stale;
+
+  public BookSearchIndex() throws IOException {
+    this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+    this.searcherManager = new SearcherManager(writer, null);
+  }
+
+  public void index(Book book) {
+    var id = String.valueOf(book.getId());
+    var document = toDocument(book);
+    afterCommit(() -> writer.updateDocument(new Term(ID, id), document));
+  }
+
+  public void remove(Book book) {
+    var id = String.valueOf(book.getId());
+    afterCommit(() -> writer.deleteDocuments(new Term(ID, id)));
+  }
+
+  public void rebuild(Stream<Book> books) {
+    try {
+      writer.deleteAll();
+      // Requests are already served while this runs, so replace by id in case an edit indexed the book first
+      for (var iterator = books.iterator(); iterator.hasNext();) {
+        var book = iterator.next();
+        writer.updateDocument(new Term(ID, String.valueOf(book.getId())), toDocument(book));
+      }
+      stale = true;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  public Hits search(String text, Pageable page) {
+    var parser = new SimpleQueryParser(analyzer, Map.of(TITLE, 2f, DESCRIPTION, 1f));
+    parser.setDefaultOperator(BooleanClause.Occur.MUST);
+    var query = parser.parse(text);
+    if (query == null) {
+      return new Hits(List.of(), 0);
+    }
+    try {
+      if (stale) {
+        stale = false;
+        searcherManager.maybeRefreshBlocking();
+      }
+      var searcher = searcherManager.acquire();
+      try {
+        // The hit queue is allocated up front, so never size it past the documents that exist
+        var maxDoc = searcher.getIndexReader().maxDoc();
+        if (page.getOffset() >= maxDoc) {
+          return new Hits(List.of(), searcher.count(query));
+        }
+        var numHits = (int) Math.min(page.getOffset() + page.getPageSize(), maxDoc);
+        var collector = TopScoreDocCollector.create(numHits, Integer.MAX_VALUE);
+        searcher.search(query, collector);
+        var topDocs = collector.topDocs((int) page.getOffset(), page.getPageSize());
+        var storedFields = searcher.storedFields();
+        var ids = new ArrayList<Long>(topDocs.scoreDocs.length);
+        for (var scoreDoc : topDocs.scoreDocs) {
+          ids.add(Long.valueOf(storedFields.document(scoreDoc.doc).get(ID)));
+        }
+        return new Hits(ids, topDocs.totalHits.value);
+      } finally {
+        searcherManager.release(searcher);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @PreDestroy
+  void close() throws IOException {
+    searcherManager.close();
+    writer.close();
+  }
+
+  private Document toDocument(Book book) {
+    var document = new Document();
+    document.add(new StringField(ID, String.valueOf(book.getId()), Field.Store.YES));
+    document.add(new TextField(TITLE, book.getTitle(), Field.Store.NO));
+    document.add(new TextField(DESCRIPTION, book.getDescription(), Field.Store.NO));
+    return document;
+  }
+
+  private void afterCommit(IndexUpdate update) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          apply(update);
+        }
+      });
+    } else {
+      apply(update);
+    }
+  }
+
+  private void apply(IndexUpdate update) {
+    try {
+      update.apply();
+      stale = true;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  @FunctionalInterface
+  private interface IndexUpdate {
+    void apply() throws IOException;
+  }
+
+}
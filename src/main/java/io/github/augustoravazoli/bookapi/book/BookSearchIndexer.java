@@ -0,0 +1,26 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+class BookSearchIndexer {
+
+  private final BookSearchIndex searchIndex;
+
+  public BookSearchIndexer(BookSearchIndex searchIndex) {
+    this.searchIndex = searchIndex;
+  }
+
+  @PostPersist
+  @PostUpdate
+  void index(Book book) {
+    searchIndex.index(book);
+  }
+
+  @PostRemove
+  void remove(Book book) {
+    searchIndex.remove(book);
+  }
+
+}
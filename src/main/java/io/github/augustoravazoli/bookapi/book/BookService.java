@@ -1,97 +1,379 @@
 package io.github.augustoravazoli.bookapi.book;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
-import io.github.augustoravazoli.bookapi.author.Author;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import io.github.augustoravazoli.bookapi.BookApiProperties;
+import io.github.augustoravazoli.bookapi.FilterQueries;
+import io.github.augustoravazoli.bookapi.InvalidIdException;
+import io.github.augustoravazoli.bookapi.OptimisticLocking;
+import io.github.augustoravazoli.bookapi.TotalCount;
+import io.github.augustoravazoli.bookapi.UniqueConstraints;
 import io.github.augustoravazoli.bookapi.author.AuthorNotFoundException;
 import io.github.augustoravazoli.bookapi.author.AuthorRepository;
+import io.github.augustoravazoli.bookapi.author.AuthorResponse;
 
 @Service
 class BookService {
 
+  public static final int CHUNK_SIZE = 200;
+
   private final BookRepository bookRepository;
   private final AuthorRepository authorRepository;
+  private final BookMapper bookMapper;
+  private final Validator validator;
+  private final EntityManager entityManager;
+  private final BookSearchIndex searchIndex;
+  private final TotalCount totalCount;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
 
-  public BookService(BookRepository bookRepository, AuthorRepository authorRepository) {
+  public BookService(
+    BookRepository bookRepository,
+    AuthorRepository authorRepository,
+    BookMapper bookMapper,
+    Validator validator,
+    EntityManager entityManager,
+    BookSearchIndex searchIndex,
+    BookApiProperties properties,
+    PlatformTransactionManager transactionManager
+  ) {
     this.bookRepository = bookRepository;
     this.authorRepository = authorRepository;
+    this.bookMapper = bookMapper;
+    this.validator = validator;
+    this.entityManager = entityManager;
+    this.searchIndex = searchIndex;
+    this.totalCount = new TotalCount(properties.pagination(), bookRepository::count);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
   }
 
+  @Transactional
   public Book createBook(Book book) {
-    if (bookRepository.existsByTitle(book.getTitle())) {
-      throw new TitleAlreadyInUseException(book.getTitle());
+    return saveBook(book);
+  }
+
+  public List<BookBatchResponse> createBooks(List<BookRequest> bookRequests) {
+    var results = new BookBatchResponse[bookRequests.size()];
+    var valid = new ArrayList<Integer>();
+    for (int i = 0; i < bookRequests.size(); i++) {
+      if (bookRequests.get(i) == null) {
+        results[i] = BookBatchResponse.invalid(i, "book must not be null");
+        continue;
+      }
+      var violations = validator.validate(bookRequests.get(i));
+      if (violations.isEmpty()) {
+        valid.add(i);
+      } else {
+        var message = violations.stream()
+          .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+          .sorted()
+          .collect(joining(", "));
+        results[i] = BookBatchResponse.invalid(i, message);
+      }
     }
-    if (bookRepository.existsByIsbn(book.getIsbn())) {
-      throw new IsbnAlreadyInUseException(book.getIsbn());
+    var takenTitles = new HashSet<>(bookRepository.findTitlesIn(
+      valid.stream().map(i -> bookRequests.get(i).title()).collect(toSet())
+    ));
+    var takenIsbns = new HashSet<>(bookRepository.findIsbnsIn(
+      valid.stream().map(i -> bookRequests.get(i).isbn()).collect(toSet())
+    ));
+    var indexes = new ArrayList<Integer>();
+    var books = new ArrayList<Book>();
+    for (var i : valid) {
+      var book = bookMapper.toEntity(bookRequests.get(i));
+      if (!takenTitles.add(book.getTitle())) {
+        results[i] = BookBatchResponse.conflict(i, new TitleAlreadyInUseException(book.getTitle()));
+      } else if (!takenIsbns.add(book.getIsbn())) {
+        takenTitles.remove(book.getTitle());
+        results[i] = BookBatchResponse.conflict(i, new IsbnAlreadyInUseException(book.getIsbn()));
+      } else {
+        indexes.add(i);
+        books.add(book);
+      }
     }
-    return bookRepository.save(book);
+    try {
+      var savedBooks = transactionTemplate.execute(status -> bookRepository.saveAllAndFlush(books));
+      for (int i = 0; i < savedBooks.size(); i++) {
+        var index = indexes.get(i);
+        results[index] = BookBatchResponse.created(index, bookMapper.toResponse(savedBooks.get(i)));
+      }
+    } catch (DataIntegrityViolationException ex) {
+      // A concurrent writer took a title or ISBN after the check, so save one by one to find the conflicting items
+      for (var index : indexes) {
+        results[index] = createBatchItem(index, bookMapper.toEntity(bookRequests.get(index)));
+      }
+    }
+    return Arrays.asList(results);
   }
 
-  public Book findBook(long id) {
+  private BookBatchResponse createBatchItem(int index, Book book) {
+    try {
+      var savedBook = transactionTemplate.execute(status -> saveBook(book));
+      return BookBatchResponse.created(index, bookMapper.toResponse(savedBook));
+    } catch (TitleAlreadyInUseException | IsbnAlreadyInUseException ex) {
+      return BookBatchResponse.conflict(index, ex);
+    } catch (DataIntegrityViolationException ex) {
+      // Earlier items are already committed, so report this one instead of failing the whole request
+      return BookBatchResponse.invalid(index, "book violates a data integrity constraint");
+    }
+  }
+
+  @Cacheable("books")
+  public BookResponse findBook(long id) {
     return bookRepository
-      .findById(id)
+      .findResponseById(id)
       .orElseThrow(() -> new BookNotFoundException(id));
   }
 
-  public Page<Book> findAllBooks(Pageable page) {
-    return bookRepository.findAll(page);
+  // Each chunk is read in its own transaction, so the connection goes back to the pool while the previous one is written
+  public Iterator<List<BookResponse>> findAllBooks(BookFilter filter, Pageable page) {
+    var sortedPage = sorted(page);
+    return new Iterator<>() {
+
+      private int remaining = sortedPage.getPageSize();
+      private BookResponse last;
+
+      @Override
+      public boolean hasNext() {
+        return remaining > 0;
+      }
+
+      @Override
+      public List<BookResponse> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        var size = Math.min(remaining, CHUNK_SIZE);
+        var chunk = readOnlyTransactionTemplate.execute(status -> bookRepository.findChunk(filter, sortedPage, last, size));
+        remaining = chunk.size() < size ? 0 : remaining - size;
+        if (!chunk.isEmpty()) {
+          last = chunk.get(chunk.size() - 1);
+        }
+        return chunk;
+      }
+
+    };
   }
 
-  public Book editBook(long id, Book newBook) {
-    return bookRepository
+  @Transactional(readOnly = true)
+  public List<BookFilterRepository.Version> findBookVersions(BookFilter filter, Pageable page) {
+    return bookRepository.findVersions(filter, sorted(page));
+  }
+
+  @Transactional(readOnly = true)
+  public Slice<Map<String, Object>> findAllBooks(BookFilter filter, String fields, Pageable page) {
+    return bookRepository.findAll(filter, FilterQueries.fields(fields, BookFilterRepository.FIELDS), sorted(page));
+  }
+
+  @Transactional(readOnly = true)
+  public BookWithAuthorsResponse findBookWithAuthors(long id) {
+    var book = bookRepository
+      .findResponseById(id)
+      .orElseThrow(() -> new BookNotFoundException(id));
+    return new BookWithAuthorsResponse(book, authorRepository.findAllOfBook(id));
+  }
+
+  @Transactional(readOnly = true)
+  public Slice<BookWithAuthorsResponse> findAllBooksWithAuthors(BookFilter filter, Pageable page) {
+    var books = bookRepository.findAll(filter, sorted(page));
+    var authors = authorRepository.findAllOfBooks(books.map(BookResponse::id).getContent());
+    return books.map(book -> new BookWithAuthorsResponse(book, authors.getOrDefault(book.id(), List.of())));
+  }
+
+  public OptionalLong countBooks(BookFilter filter) {
+    if (filter.isEmpty()) {
+      return totalCount.get();
+    }
+    return totalCount.getIfExact(() -> bookRepository.count(filter));
+  }
+
+  @Transactional(readOnly = true)
+  public Slice<BookResponse> findAllBooksAfter(BookFilter filter, long id, int size) {
+    return bookRepository.findAllAfter(filter, id, size);
+  }
+
+  @Transactional(readOnly = true)
+  public void exportBooks(Consumer<BookResponse> consumer) {
+    try (var books = bookRepository.streamAllResponses()) {
+      books.forEach(consumer);
+    }
+  }
+
+  public Page<BookResponse> searchBooks(String query, Pageable page) {
+    var hits = searchIndex.search(query, page);
+    var books = bookRepository.findResponsesByIdIn(hits.ids())
+      .stream()
+      .collect(toMap(BookResponse::id, Function.identity()));
+    var ranked = hits.ids()
+      .stream()
+      .map(books::get)
+      .filter(Objects::nonNull)
+      .toList();
+    return new PageImpl<>(ranked, page, hits.total());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void indexBooks() {
+    try (var books = bookRepository.streamAllBy()) {
+      searchIndex.rebuild(books.peek(entityManager::detach));
+    }
+  }
+
+  public Book editBook(long id, Book newBook, OptionalLong expectedVersion) {
+    return OptimisticLocking.edit(transactionTemplate, expectedVersion, () -> bookRepository
       .findById(id)
       .map(book -> {
-        if (!newBook.getTitle().equals(book.getTitle()) 
-          && bookRepository.existsByTitle(newBook.getTitle())
-        ) {
-          throw new TitleAlreadyInUseException(newBook.getTitle());
-        }
-        if (!newBook.getIsbn().equals(book.getIsbn()) 
-          && bookRepository.existsByIsbn(newBook.getIsbn())
-        ) {
-          throw new IsbnAlreadyInUseException(newBook.getIsbn());
-        }
+        OptimisticLocking.requireVersion(expectedVersion, book.getVersion());
         book.setTitle(newBook.getTitle());
         book.setDescription(newBook.getDescription());
         book.setIsbn(newBook.getIsbn());
         book.setPublished(newBook.isPublished());
-        return bookRepository.save(book);
+        return saveBook(book);
       })
-      .orElseThrow(() -> new BookNotFoundException(id));
+      .orElseThrow(() -> new BookNotFoundException(id))
+    );
   }
 
+  @Transactional
   public void deleteBook(long id) {
-    if (!bookRepository.existsById(id)) {
-      throw new BookNotFoundException(id);
-    }
-    bookRepository.deleteById(id);
+    var book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+    bookRepository.delete(book);
   }
 
-  public List<Author> findBookAuthors(long id) {
-    if (!bookRepository.existsById(id)) {
+  @Transactional(readOnly = true)
+  public List<AuthorResponse> findBookAuthors(long id) {
+    var authors = authorRepository.findAllOfBook(id);
+    if (authors.isEmpty() && !bookRepository.existsById(id)) {
       throw new BookNotFoundException(id);
     }
-    return authorRepository.findAllByBooksId(id); 
+    return authors;
   }
 
+  @Caching(evict = {
+    @CacheEvict(cacheNames = "books", key = "#bookId"),
+    @CacheEvict(cacheNames = "authors", key = "#authorId")
+  })
+  @Transactional
   public void addAuthorToBook(long bookId, long authorId) {
-    var book = bookRepository.findById(bookId)
-      .orElseThrow(() -> new BookNotFoundException(bookId));
-    var author = authorRepository.findById(authorId)
-      .orElseThrow(() -> new AuthorNotFoundException(authorId));
-    book.addAuthor(author);
-    bookRepository.save(book);
+    if (bookRepository.linkAuthor(bookId, authorId) == 0) {
+      requireBookAndAuthor(bookId, authorId);
+    }
   }
 
+  @Caching(evict = {
+    @CacheEvict(cacheNames = "books", key = "#bookId"),
+    @CacheEvict(cacheNames = "authors", key = "#authorId")
+  })
+  @Transactional
   public void removeAuthorFromBook(long bookId, long authorId) {
-    var book = bookRepository.findById(bookId)
-      .orElseThrow(() -> new BookNotFoundException(bookId));
-    var author = authorRepository.findById(authorId)
-      .orElseThrow(() -> new AuthorNotFoundException(authorId));
-    book.removeAuthor(author);
-    bookRepository.save(book);
+    if (bookRepository.unlinkAuthor(bookId, authorId) == 0) {
+      requireBookAndAuthor(bookId, authorId);
+    }
+  }
+
+  @Transactional
+  @CacheEvict(cacheNames = "books", key = "#bookId")
+  public void setBookAuthors(long bookId, Set<Long> authorIds) {
+    requireBookAndAuthors(bookId, authorIds);
+    if (authorIds.isEmpty()) {
+      bookRepository.unlinkAllAuthors(bookId);
+      return;
+    }
+    bookRepository.unlinkAuthorsExcept(bookId, authorIds);
+    bookRepository.linkAuthors(bookId, authorIds);
+  }
+
+  @Transactional
+  @CacheEvict(cacheNames = "books", key = "#bookId")
+  public void addBookAuthors(long bookId, Set<Long> authorIds) {
+    requireBookAndAuthors(bookId, authorIds);
+    if (!authorIds.isEmpty()) {
+      bookRepository.linkAuthors(bookId, authorIds);
+    }
+  }
+
+  private Book saveBook(Book book) {
+    try {
+      return bookRepository.saveAndFlush(book);
+    } catch (DataIntegrityViolationException ex) {
+      if (UniqueConstraints.isViolated(ex, Book.TITLE_CONSTRAINT)) {
+        throw new TitleAlreadyInUseException(book.getTitle());
+      }
+      if (UniqueConstraints.isViolated(ex, Book.ISBN_CONSTRAINT)) {
+        throw new IsbnAlreadyInUseException(book.getIsbn());
+      }
+      throw ex;
+    }
+  }
+
+  private void requireBookAndAuthors(long bookId, Set<Long> authorIds) {
+    if (authorIds.stream().anyMatch(Objects::isNull)) {
+      throw new InvalidIdException();
+    }
+    if (!bookRepository.existsById(bookId)) {
+      throw new BookNotFoundException(bookId);
+    }
+    if (authorIds.isEmpty()) {
+      return;
+    }
+    var existingIds = authorRepository.findIdsIn(authorIds);
+    authorIds.stream()
+      .filter(id -> !existingIds.contains(id))
+      .findFirst()
+      .ifPresent(id -> {
+        throw new AuthorNotFoundException(id);
+      });
+  }
+
+  private void requireBookAndAuthor(long bookId, long authorId) {
+    if (!bookRepository.existsById(bookId)) {
+      throw new BookNotFoundException(bookId);
+    }
+    if (!authorRepository.existsById(authorId)) {
+      throw new AuthorNotFoundException(authorId);
+    }
+  }
+
+  private Pageable sorted(Pageable page) {
+    var sort = page.getSortOr(Sort.by("id"));
+    if (sort.getOrderFor("id") == null) {
+      sort = sort.and(Sort.by("id"));
+    }
+    return PageRequest.of(page.getPageNumber(), page.getPageSize(), sort);
   }
 
 }
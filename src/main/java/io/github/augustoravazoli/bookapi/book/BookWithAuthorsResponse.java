@@ -0,0 +1,10 @@
+package io.github.augustoravazoli.bookapi.book;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.github.augustoravazoli.bookapi.author.AuthorResponse;
+
+public record BookWithAuthorsResponse(
+  @JsonUnwrapped BookResponse book,
+  List<AuthorResponse> authors
+) {}
@@ -0,0 +1,41 @@
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+CREATE SEQUENCE author_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+CREATE TABLE book (
+  id BIGINT NOT NULL,
+  version BIGINT NOT NULL,
+  title VARCHAR(255) NOT NULL,
+  description VARCHAR(255) NOT NULL,
+  isbn VARCHAR(255) NOT NULL,
+  published BOOLEAN NOT NULL,
+  CONSTRAINT pk_book PRIMARY KEY (id),
+  CONSTRAINT uk_book_title UNIQUE (title),
+  CONSTRAINT uk_book_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE author (
+  id BIGINT NOT NULL,
+  version BIGINT NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  email VARCHAR(255) NOT NULL,
+  CONSTRAINT pk_author PRIMARY KEY (id),
+  CONSTRAINT uk_author_email UNIQUE (email)
+);
+
+CREATE TABLE book_author (
+  book_id BIGINT NOT NULL,
+  author_id BIGINT NOT NULL,
+  CONSTRAINT pk_book_author PRIMARY KEY (author_id, book_id),
+  CONSTRAINT fk_book_author_book FOREIGN KEY (book_id) REFERENCES book (id),
+  CONSTRAINT fk_book_author_author FOREIGN KEY (author_id) REFERENCES author (id)
+);
+
+CREATE INDEX idx_book_published_id ON book (published, id);
+
+-- Author listings page by (name, id), keep the tie breaker in the index.
+CREATE INDEX idx_author_name_id ON author (name, id);
+
+-- The primary key (author_id, book_id) already serves lookups by author,
+-- lookups by book need their own index.
+CREATE INDEX idx_book_author_book_id ON book_author (book_id, author_id);
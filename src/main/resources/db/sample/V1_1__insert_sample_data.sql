@@ -1,15 +1,15 @@
-INSERT INTO book (title, description, isbn, published) VALUES
-  ('The Lord of the Rings', 'Fantasy', '9780544003415', true),
-  ('The Hobbit', 'Some detailed description', '9780008376055', false),
-  ('The Silmarillion', 'description', '9780618391110', true),
-  ('Design Patterns', 'Some description', '9780201633610', true);
+INSERT INTO book (id, version, title, description, isbn, published) VALUES
+  (NEXT VALUE FOR book_seq, 0, 'The Lord of the Rings', 'Fantasy', '9780544003415', true),
+  (NEXT VALUE FOR book_seq, 0, 'The Hobbit', 'Some detailed description', '9780008376055', false),
+  (NEXT VALUE FOR book_seq, 0, 'The Silmarillion', 'description', '9780618391110', true),
+  (NEXT VALUE FOR book_seq, 0, 'Design Patterns', 'Some description', '9780201633610', true);
 
-INSERT INTO author (name, email) VALUES
-  ('J.R.R. Tolkien', 'tolkien@example.com'),
-  ('Erich Gamma', 'erich@example.com'),
-  ('Richard Helm', 'richard@example.com'),
-  ('Ralph Johnson', 'ralph@example.com'),
-  ('John Vlissides', 'john@example.com');
+INSERT INTO author (id, version, name, email) VALUES
+  (NEXT VALUE FOR author_seq, 0, 'J.R.R. Tolkien', 'tolkien@example.com'),
+  (NEXT VALUE FOR author_seq, 0, 'Erich Gamma', 'erich@example.com'),
+  (NEXT VALUE FOR author_seq, 0, 'Richard Helm', 'richard@example.com'),
+  (NEXT VALUE FOR author_seq, 0, 'Ralph Johnson', 'ralph@example.com'),
+  (NEXT VALUE FOR author_seq, 0, 'John Vlissides', 'john@example.com');
 
 INSERT INTO book_author (book_id, author_id) VALUES 
   (
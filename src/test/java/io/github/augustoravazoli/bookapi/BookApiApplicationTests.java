@@ -1,14 +1,43 @@
 package io.github.augustoravazoli.bookapi;
 
+import java.util.List;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import io.github.augustoravazoli.bookapi.RequiredIndexes.Index;
 
 @SpringBootTest
 @ActiveProfiles("test")
 class BookApiApplicationTests {
 
+  @Autowired
+  private DataSource dataSource;
+
   @Test
   void contextLoads() {}
 
+  @Test
+  void givenMigratedSchema_whenFindMissingIndexes_thenFindsNone() throws Exception {
+    var indexes = new RequiredIndexes(dataSource, List.of(
+      Index.on("book_author", "book_id"),
+      Index.on("book_author", "author_id", "book_id")
+    ));
+    assertThat(indexes.findMissing()).isEmpty();
+  }
+
+  @Test
+  void givenMissingIndex_whenStart_thenFails() {
+    var indexes = new RequiredIndexes(dataSource, List.of(
+      Index.on("book", "description"),
+      Index.on("book", "id", "published")
+    ));
+    assertThatIllegalStateException()
+      .isThrownBy(indexes::afterPropertiesSet)
+      .withMessageContaining("book(description), book(id, published)");
+  }
+
 }
@@ -20,6 +20,10 @@ import static org.springframework.restdocs.operation.preprocess.Preprocessors.pr
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.documentationConfiguration;
 import org.springframework.restdocs.constraints.ConstraintDescriptions;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -31,6 +35,9 @@ public abstract class EndpointsTestTemplate {
   @Autowired
   private ObjectMapper mapper;  
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
   @BeforeEach
   void setUp(WebApplicationContext context, RestDocumentationContextProvider provider) {
     client = MockMvcBuilders.webAppContextSetup(context)
@@ -46,6 +53,10 @@ public abstract class EndpointsTestTemplate {
     return mapper.writeValueAsString(object);
   } 
 
+  protected Statistics statistics() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
   protected Map<String, String> violation(String field, String message) {
     return Map.of("field", field, "message", message);
   }
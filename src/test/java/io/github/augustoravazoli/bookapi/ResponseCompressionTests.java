@@ -0,0 +1,78 @@
+package io.github.augustoravazoli.bookapi;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import io.github.augustoravazoli.bookapi.book.Book;
+import io.github.augustoravazoli.bookapi.book.BookRepository;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ActiveProfiles("test")
+class ResponseCompressionTests {
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private BookRepository bookRepository;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @BeforeEach
+  void setUp() {
+    bookRepository.deleteAll();
+    bookRepository.saveAll(IntStream.range(0, 100)
+      .mapToObj(i -> new Book("Book " + i, "Description of book " + i, "978" + i, true))
+      .toList()
+    );
+  }
+
+  @Test
+  @DisplayName("Compress large responses when the client accepts gzip")
+  void givenAcceptedGzip_whenFindAllBooks_thenCompressesResponse() throws Exception {
+    // when
+    var response = get("/api/books?size=100", "gzip");
+    // then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+  }
+
+  @Test
+  @DisplayName("Don't compress responses under the minimum size")
+  void givenSmallResponse_whenFindAllBooks_thenDoesNotCompress() throws Exception {
+    // when
+    var response = get("/api/books?size=1", "gzip");
+    // then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Don't compress when the client doesn't accept gzip")
+  void givenNoAcceptedEncoding_whenFindAllBooks_thenDoesNotCompress() throws Exception {
+    // when
+    var response = get("/api/books?size=100", "identity");
+    // then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+  }
+
+  private HttpResponse<byte[]> get(String path, String encoding) throws Exception {
+    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+      .header("Accept-Encoding", encoding)
+      .build();
+    return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+}
@@ -10,12 +10,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.restdocs.payload.RequestFieldsSnippet;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import static org.springframework.restdocs.headers.HeaderDocumentation.headerWithName;
+import static org.springframework.restdocs.headers.HeaderDocumentation.responseHeaders;
 import static org.springframework.restdocs.payload.PayloadDocumentation.requestFields;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -26,9 +33,13 @@ import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.github.augustoravazoli.bookapi.Cursor;
 import io.github.augustoravazoli.bookapi.EndpointsTestTemplate;
+import io.github.augustoravazoli.bookapi.WireFormats;
 import io.github.augustoravazoli.bookapi.book.Book;
 import io.github.augustoravazoli.bookapi.book.BookRepository;
 
@@ -78,6 +89,23 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
         .contains(tuple("J.R.R. Tolkien", "tolkien@example.com"));
     }
 
+    @Test
+    @DisplayName("Create author with a single insert")
+    void whenCreateAuthor_thenIssuesNoUniquenessQueries() throws Exception {
+      // given
+      var newAuthor = new AuthorRequest("J.R.R. Tolkien", "tolkien@example.com");
+      statistics().clear();
+      // when
+      client.perform(post("/api/authors")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newAuthor))
+      )
+      // then
+      .andExpect(status().isCreated());
+      assertThat(statistics().getQueryExecutionCount()).isZero();
+      assertThat(statistics().getEntityInsertCount()).isEqualTo(1);
+    }
+
     @Test
     @DisplayName("Don't create author when email is already in use")
     void givenEmailTaken_whenCreateAuthor_thenReturns409() throws Exception {
@@ -132,6 +160,245 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
 
   }
 
+  @Nested
+  @DisplayName("Author find all scenarios")
+  class FindAllAuthorsEndpointTests {
+
+    @Test
+    @DisplayName("Find authors by name prefix")
+    void givenNamePrefix_whenFindAllAuthors_thenReturnsMatchingAuthors() throws Exception {
+      // given
+      authorRepository.saveAll(asList(
+        new Author("J.R.R. Tolkien", "tolkien@example.com"),
+        new Author("C.S. Lewis", "lewis@example.com"),
+        new Author("J.K. Rowling", "rowling@example.com")
+      ));
+      // when
+      client.perform(get("/api/authors")
+        .param("namePrefix", "J.")
+        .param("page", "0")
+        .param("size", "10")
+        .param("sort", "name")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "2"),
+        jsonPath("$[*].name", contains("J.K. Rowling", "J.R.R. Tolkien"))
+      )
+      .andDo(document("author/find-all", queryParameters(
+        parameterWithName("namePrefix").description("Only authors whose name starts with the given value").optional(),
+        parameterWithName("bookId").description("Only authors of the given book").optional(),
+        parameterWithName("page").description("The page to retrieve"),
+        parameterWithName("size").description("Entries per page"),
+        parameterWithName("sort").description("`name` or `id`, by name then id when omitted")
+      )));
+    }
+
+    @Test
+    @DisplayName("Find all authors by name then id")
+    void givenSameNames_whenFindAllAuthors_thenSortsByNameThenId() throws Exception {
+      // given
+      var authors = authorRepository.saveAll(asList(
+        new Author("Ralph Johnson", "ralph@example.com"),
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Ralph Johnson", "johnson@example.com")
+      ));
+      var first = Math.min(authors.get(0).getId(), authors.get(2).getId());
+      // when
+      client.perform(get("/api/authors")
+        .param("page", "0")
+        .param("size", "2")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[*].name", contains("Erich Gamma", "Ralph Johnson")),
+        jsonPath("$[1].id", is(first), Long.class)
+      );
+    }
+
+    @Test
+    @DisplayName("Find all authors with selected fields")
+    void whenFindAllAuthorFields_thenReturnsOnlySelectedFields() throws Exception {
+      // given
+      authorRepository.saveAll(asList(
+        new Author("J.R.R. Tolkien", "tolkien@example.com"),
+        new Author("C.S. Lewis", "lewis@example.com")
+      ));
+      // when
+      client.perform(get("/api/authors").param("fields", "name"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "2"),
+        jsonPath("$[*].name", contains("C.S. Lewis", "J.R.R. Tolkien")),
+        jsonPath("$[*].id").isEmpty(),
+        jsonPath("$[*].email").isEmpty()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find authors when selecting an unsupported field")
+    void givenUnsupportedField_whenFindAllAuthorFields_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/authors").param("fields", "books"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Field \"books\" is not supported"))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find authors when sorting by an unsupported field")
+    void givenUnsupportedSort_whenFindAllAuthors_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/authors").param("sort", "email"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Sorting by \"email\" is not supported"))
+      );
+    }
+
+    @Test
+    @DisplayName("Find all authors after cursor by name then id")
+    void whenFindAllAuthorsAfterCursor_thenReturns200() throws Exception {
+      // given
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Ralph Johnson", "ralph@example.com"),
+        new Author("John Vlissides", "john@example.com"),
+        new Author("Ralph Johnson", "johnson@example.com"),
+        new Author("Richard Helm", "richard@example.com")
+      ));
+      var first = authors.get(1).getId() < authors.get(3).getId() ? authors.get(1) : authors.get(3);
+      var second = first == authors.get(1) ? authors.get(3) : authors.get(1);
+      // when
+      client.perform(get("/api/authors")
+        .param("after", Cursor.encode(new Cursor.Key("Erich Gamma", authors.get(0).getId())))
+        .param("size", "2")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Next-Cursor", Cursor.encode(new Cursor.Key("Ralph Johnson", first.getId()))),
+        header().doesNotExist("X-Total-Count"),
+        jsonPath("$[*].name", contains("John Vlissides", "Ralph Johnson")),
+        jsonPath("$[1].id", is(first.getId()), Long.class)
+      )
+      .andDo(document("author/find-all-after", queryParameters(
+        parameterWithName("after").description("Cursor returned by the previous page, empty for the first page"),
+        parameterWithName("size").description("Entries per page")
+      ), responseHeaders(
+        headerWithName("X-Next-Cursor").description("Cursor of the next page, absent on the last page")
+      )));
+      // and
+      client.perform(get("/api/authors")
+        .param("after", Cursor.encode(new Cursor.Key("Ralph Johnson", first.getId())))
+        .param("size", "2")
+      )
+      .andExpectAll(
+        status().isOk(),
+        header().doesNotExist("X-Next-Cursor"),
+        jsonPath("$[*].name", contains("Ralph Johnson", "Richard Helm")),
+        jsonPath("$[0].id", is(second.getId()), Long.class)
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find authors when cursor is invalid")
+    void givenInvalidCursor_whenFindAllAuthorsAfterCursor_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/authors")
+        .param("after", Cursor.encode(42))
+        .param("size", "2")
+      )
+      // then
+      .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Don't find authors when cursor is combined with fields")
+    void givenAfterAndFields_whenFindAllAuthors_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/authors").param("after", "").param("fields", "name"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Parameters \"after\" and \"fields\" can't be combined")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Find authors of a book")
+    void givenBookFilter_whenFindAllAuthors_thenReturnsBookAuthors() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com"),
+        new Author("J.R.R. Tolkien", "tolkien@example.com")
+      ));
+      authors.subList(0, 2).forEach(author -> book.addAuthor(author));
+      bookRepository.save(book);
+      // when
+      client.perform(get("/api/authors").param("bookId", String.valueOf(book.getId())))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[*].name", containsInAnyOrder("Erich Gamma", "Richard Helm"))
+      );
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Author find all with cached count scenarios")
+  @TestPropertySource(properties = {
+    "book-api.pagination.count-strategy=cached",
+    "book-api.pagination.count-ttl=1h"
+  })
+  class FindAllAuthorsCachedCountEndpointTests {
+
+    @Test
+    @DisplayName("Find all authors with count cached between requests")
+    void givenCachedCount_whenFindAllAuthors_thenReturnsCachedTotal() throws Exception {
+      // given
+      authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      client.perform(get("/api/authors"))
+        .andExpect(header().string("X-Total-Count", "1"));
+      // and
+      authorRepository.save(new Author("C.S. Lewis", "lewis@example.com"));
+      // when
+      client.perform(get("/api/authors"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "1"),
+        jsonPath("$[*].name", contains("C.S. Lewis", "J.R.R. Tolkien"))
+      );
+    }
+
+    @Test
+    @DisplayName("Find authors by name prefix without total count")
+    void givenNamePrefix_whenFindAllAuthors_thenReturnsNoTotal() throws Exception {
+      // given
+      authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      // when
+      client.perform(get("/api/authors").param("namePrefix", "J."))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().doesNotExist("X-Total-Count"),
+        jsonPath("$", hasSize(1))
+      );
+    }
+
+  }
+
   @Nested
   @DisplayName("Author find scenarios")
   class FindAuthorEndpointTests {
@@ -148,11 +415,44 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
         status().isOk(),
         jsonPath("$.id", notNullValue(Long.class)),
         jsonPath("$.name", is("J.R.R. Tolkien")),
-        jsonPath("$.email", is("tolkien@example.com"))
+        jsonPath("$.email", is("tolkien@example.com")),
+        jsonPath("$.version").doesNotExist(),
+        header().string("ETag", "\"0-json\"")
       )
       .andDo(document("author/find"));    
     }
 
+    @Test
+    @DisplayName("Find author as Smile")
+    void givenSmileAccepted_whenFindAuthor_thenReturnsSmile() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      // when
+      var content = client.perform(get("/api/authors/{id}", author.getId()).accept(WireFormats.APPLICATION_SMILE))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        content().contentType(WireFormats.APPLICATION_SMILE)
+      )
+      .andReturn()
+      .getResponse()
+      .getContentAsByteArray();
+      var response = new SmileMapper().readValue(content, AuthorResponse.class);
+      assertThat(response.id()).isEqualTo(author.getId());
+      assertThat(response.name()).isEqualTo("J.R.R. Tolkien");
+    }
+
+    @Test
+    @DisplayName("Don't resend unchanged author")
+    void givenMatchingETag_whenFindAuthor_thenReturns304() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      // when
+      client.perform(get("/api/authors/{id}", author.getId()).header("If-None-Match", "\"0-json\""))
+      // then
+      .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("Don't find author when author doesn't exists")
     void givenNonexistentAuthor_whenFindAuthor_thenReturns404() throws Exception {
@@ -166,6 +466,40 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+    @Test
+    @DisplayName("Find edited author instead of cached one")
+    void givenCachedAuthor_whenFindAuthorAfterEdit_thenReturnsEditedAuthor() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var newAuthor = new AuthorRequest("C.S. Lewis", "lewis@example.com");
+      client.perform(get("/api/authors/{id}", author.getId()));
+      client.perform(put("/api/authors/{id}", author.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newAuthor))
+      );
+      // when
+      client.perform(get("/api/authors/{id}", author.getId()))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$.name", is("C.S. Lewis")),
+        jsonPath("$.email", is("lewis@example.com"))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find deleted author from cache")
+    void givenCachedAuthor_whenFindAuthorAfterDelete_thenReturns404() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      client.perform(get("/api/authors/{id}", author.getId()));
+      client.perform(delete("/api/authors/{id}", author.getId()));
+      // when
+      client.perform(get("/api/authors/{id}", author.getId()))
+      // then
+      .andExpect(status().isNotFound());
+    }
+
   }
 
   @Nested
@@ -197,6 +531,33 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
         .contains("C.S. Lewis", "cslewis@example.com");
     }
 
+    @Test
+    @DisplayName("Don't edit author when If-Match holds a stale version")
+    void givenStaleETag_whenEditAuthor_thenReturns412() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      client.perform(put("/api/authors/{id}", author.getId())
+        .header("If-Match", "\"0-json\"")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(new AuthorRequest("C.S. Lewis", "cslewis@example.com")))
+      )
+      .andExpect(header().string("ETag", "\"1-json\""));
+      // when
+      client.perform(put("/api/authors/{id}", author.getId())
+        .header("If-Match", "\"0-json\"")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(new AuthorRequest("J.K. Rowling", "rowling@example.com")))
+      )
+      // then
+      .andExpectAll(
+        status().isPreconditionFailed(),
+        jsonPath("$.message", is("Version \"0\" is not the current version"))
+      );
+      assertThat(authorRepository.findById(author.getId())).get()
+        .extracting("name")
+        .isEqualTo("C.S. Lewis");
+    }
+
     @Test
     @DisplayName("Don't edit author when author doesn't exists")
     void givenNonexistentAuthor_whenEditAuthor_thenReturns404() throws Exception {
@@ -343,6 +704,40 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+
+    @Test
+    @DisplayName("Find author without books")
+    void givenAuthorWithoutBooks_whenFindAuthorBooks_thenReturnsEmptyList() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      // when
+      client.perform(get("/api/authors/{id}/books", author.getId()))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(0))
+      );
+    }
+
+    @Test
+    @DisplayName("Find author books with a single statement")
+    void whenFindAuthorBooks_thenIssuesOneStatement() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false)
+      ));
+      books.forEach(book -> author.addBook(book));
+      authorRepository.save(author);
+      statistics().clear();
+      // when
+      client.perform(get("/api/authors/{id}/books", author.getId()))
+      // then
+      .andExpect(status().isOk());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
   }
 
   @Nested
@@ -395,6 +790,24 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+
+    @Test
+    @DisplayName("Add book to author with a single statement")
+    void whenAddBookToAuthor_thenIssuesOneStatement() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      statistics().clear();
+      // when
+      client.perform(put("/api/authors/{author-id}/books/{book-id}", author.getId(), book.getId()))
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+      assertThat(authorRepository.findAllOfBook(book.getId()))
+        .extracting("name")
+        .containsExactly("J.R.R. Tolkien");
+    }
+
   }
 
   @Nested
@@ -453,6 +866,143 @@ class AuthorEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+
+    @Test
+    @DisplayName("Remove book from author with a single statement")
+    void whenRemoveBookFromAuthor_thenIssuesOneStatement() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      author.addBook(book);
+      authorRepository.save(author);
+      statistics().clear();
+      // when
+      client.perform(delete("/api/authors/{author-id}/books/{book-id}", author.getId(), book.getId()))
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+      assertThat(authorRepository.findAllOfBook(book.getId())).isEmpty();
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Set and add author books scenarios")
+  class SetAuthorBooksEndpointTests {
+
+    @Test
+    @DisplayName("Set author books with success")
+    void whenSetAuthorBooks_thenReturns204() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false),
+        new Book("The Silmarillion", "description", "9780618391110", true)
+      ));
+      author.addBook(books.get(0));
+      authorRepository.save(author);
+      var bookIds = asList(books.get(1).getId(), books.get(2).getId());
+      // when
+      client.perform(put("/api/authors/{id}/books", author.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(bookIds))
+      )
+      // then
+      .andExpectAll(
+        status().isNoContent(),
+        jsonPath("$").doesNotExist()
+      )
+      .andDo(document("author/set-books"));
+      assertThat(bookRepository.findAllOfAuthor(author.getId()))
+        .extracting("title")
+        .containsExactlyInAnyOrder("The Hobbit", "The Silmarillion");
+    }
+
+    @Test
+    @DisplayName("Add author books with success")
+    void whenAddAuthorBooks_thenReturns204() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false)
+      ));
+      author.addBook(books.get(0));
+      authorRepository.save(author);
+      var bookIds = asList(books.get(1).getId());
+      // when
+      client.perform(post("/api/authors/{id}/books", author.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(bookIds))
+      )
+      // then
+      .andExpectAll(
+        status().isNoContent(),
+        jsonPath("$").doesNotExist()
+      )
+      .andDo(document("author/add-books"));
+      assertThat(bookRepository.findAllOfAuthor(author.getId()))
+        .extracting("title")
+        .containsExactlyInAnyOrder("The Lord of the Rings", "The Hobbit");
+    }
+
+    @Test
+    @DisplayName("Don't set author books when a book id is null")
+    void givenNullBookId_whenSetAuthorBooks_thenReturns400() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var book = bookRepository.save(new Book("The Hobbit", "Some detailed description", "9780008376055", false));
+      // when
+      client.perform(put("/api/authors/{id}/books", author.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(asList(book.getId(), null)))
+      )
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Ids must not be null")),
+        jsonPath("$.details").doesNotExist()
+      );
+      assertThat(bookRepository.findAllOfAuthor(author.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Don't add author books when a book id is null")
+    void givenNullBookId_whenAddAuthorBooks_thenReturns400() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      // when
+      client.perform(post("/api/authors/{id}/books", author.getId())
+        .contentType(APPLICATION_JSON)
+        .content("[null]")
+      )
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Ids must not be null")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't add author books when a book doesn't exists")
+    void givenNonexistentBook_whenAddAuthorBooks_thenReturns404() throws Exception {
+      // given
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      // when
+      client.perform(post("/api/authors/{id}/books", author.getId())
+        .contentType(APPLICATION_JSON)
+        .content("[1]")
+      )
+      // then
+      .andExpectAll(
+        status().isNotFound(),
+        jsonPath("$.message", is("Book with given id \"1\" doesn't exists")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
   }
 
 }
@@ -1,6 +1,17 @@
 package io.github.augustoravazoli.bookapi.book;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
 import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,15 +22,27 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.restdocs.payload.RequestFieldsSnippet;
 import org.springframework.restdocs.request.QueryParametersSnippet;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
 import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
+import static org.springframework.restdocs.headers.HeaderDocumentation.headerWithName;
+import static org.springframework.restdocs.headers.HeaderDocumentation.requestHeaders;
+import static org.springframework.restdocs.headers.HeaderDocumentation.responseHeaders;
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.payload.PayloadDocumentation.requestFields;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_XML;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -28,10 +51,23 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import io.github.augustoravazoli.bookapi.Cursor;
 import io.github.augustoravazoli.bookapi.EndpointsTestTemplate;
 import io.github.augustoravazoli.bookapi.author.Author;
 import io.github.augustoravazoli.bookapi.author.AuthorRepository;
@@ -46,12 +82,39 @@ class BookEndpointsTest extends EndpointsTestTemplate {
   @Autowired
   private AuthorRepository authorRepository;
 
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private WebApplicationContext context;
+
   @BeforeEach
   void setUp() {
     bookRepository.deleteAll();
     authorRepository.deleteAll();
   }
 
+  private List<Integer> concurrently(Callable<Integer> first, Callable<Integer> second) throws Exception {
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var start = new CountDownLatch(1);
+      var futures = Stream.of(first, second)
+        .map(task -> executor.submit(() -> {
+          start.await();
+          return task.call();
+        }))
+        .toList();
+      start.countDown();
+      var statuses = new ArrayList<Integer>();
+      for (var future : futures) {
+        statuses.add(future.get(1, TimeUnit.MINUTES));
+      }
+      return statuses;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Nested
   @DisplayName("Book creation scenarios")
   class CreateBookEndpointTests {
@@ -84,6 +147,46 @@ class BookEndpointsTest extends EndpointsTestTemplate {
         .contains(tuple("The Lord of the Rings", "Fantasy", "9780544003415", true));
     }
 
+    @Test
+    @DisplayName("Create book with a single insert")
+    void whenCreateBook_thenIssuesNoUniquenessQueries() throws Exception {
+      // given
+      var newBook = new BookRequest("The Lord of the Rings", "Fantasy", "9780544003415", true);
+      statistics().clear();
+      // when
+      client.perform(post("/api/books")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBook))
+      )
+      // then
+      .andExpect(status().isCreated());
+      assertThat(statistics().getQueryExecutionCount()).isZero();
+      assertThat(statistics().getEntityInsertCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Create only one of concurrent books with the same title")
+    void givenConcurrentDuplicates_whenCreateBook_thenOneReturns409() throws Exception {
+      // when
+      var statuses = concurrently(
+        () -> createBook(new BookRequest("The Lord of the Rings", "Fantasy", "9780544003415", true)),
+        () -> createBook(new BookRequest("The Lord of the Rings", "Fantasy", "9780008376055", true))
+      );
+      // then
+      assertThat(statuses).containsExactlyInAnyOrder(201, 409);
+      assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
+    private int createBook(BookRequest book) throws Exception {
+      return client.perform(post("/api/books")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(book))
+      )
+      .andReturn()
+      .getResponse()
+      .getStatus();
+    }
+
     @Test
     @DisplayName("Don't create book when title is already in use")
     void givenTitleTaken_whenCreateBook_thenReturns409() throws Exception {
@@ -162,6 +265,197 @@ class BookEndpointsTest extends EndpointsTestTemplate {
 
   }
 
+  @Nested
+  @DisplayName("Book batch creation scenarios")
+  class CreateBooksEndpointTests {
+
+    @Test
+    @DisplayName("Create books in batch reporting each item")
+    void whenCreateBooks_thenReturnsResultPerItem() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var newBooks = asList(
+        new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false),
+        new BookRequest("The Lord of the Rings", "Fantasy", "9780618391110", true),
+        new BookRequest("The Silmarillion", "description", "9780008376055", true),
+        new BookRequest("", "description", "9780201633610", null),
+        new BookRequest("Design Patterns", "Some description", "9780201633610", true)
+      );
+      // when
+      client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBooks))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(5)),
+        jsonPath("$[*].index", contains(0, 1, 2, 3, 4)),
+        jsonPath("$[*].status", contains(201, 409, 409, 422, 201)),
+        jsonPath("$[0].book.title", is("The Hobbit")),
+        jsonPath("$[1].message", is("Book with given title \"The Lord of the Rings\" already exists")),
+        jsonPath("$[2].message", is("Book with given ISBN \"9780008376055\" already exists")),
+        jsonPath("$[3].message", is("published must not be null, title must not be blank")),
+        jsonPath("$[4].book.id", notNullValue(Long.class))
+      )
+      .andDo(document("book/create-batch"));
+      // and
+      assertThat(bookRepository.findAll())
+        .extracting("title")
+        .containsExactlyInAnyOrder("The Lord of the Rings", "The Hobbit", "Design Patterns");
+    }
+
+    @Test
+    @DisplayName("Create books in batch from CBOR")
+    void givenCbor_whenCreateBooks_thenReturnsCbor() throws Exception {
+      // given
+      var cbor = new CBORMapper();
+      var newBooks = asList(
+        new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false),
+        new BookRequest("Design Patterns", "Some description", "9780201633610", true)
+      );
+      // when
+      var content = client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_CBOR)
+        .accept(APPLICATION_CBOR)
+        .content(cbor.writeValueAsBytes(newBooks))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        content().contentType(APPLICATION_CBOR)
+      )
+      .andReturn()
+      .getResponse()
+      .getContentAsByteArray();
+      var results = cbor.readTree(content);
+      assertThat(results.findValuesAsText("status")).containsExactly("201", "201");
+      assertThat(results.findValuesAsText("title")).containsExactly("The Hobbit", "Design Patterns");
+    }
+
+    @Test
+    @DisplayName("Create books in batch with one statement per uniqueness key and batched inserts")
+    void whenCreateBooks_thenBatchesStatements() throws Exception {
+      // given
+      var newBooks = asList(
+        new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false),
+        new BookRequest("The Silmarillion", "description", "9780618391110", true),
+        new BookRequest("Design Patterns", "Some description", "9780201633610", true)
+      );
+      statistics().clear();
+      // when
+      client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBooks))
+      )
+      // then
+      .andExpect(status().isOk());
+      assertThat(statistics().getEntityInsertCount()).isEqualTo(3);
+      assertThat(statistics().getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Report conflicts per item when concurrent batches share a title")
+    void givenConcurrentDuplicates_whenCreateBooks_thenOneItemReturns409() throws Exception {
+      // when
+      var statuses = concurrently(
+        () -> createBooks(
+          new BookRequest("The Lord of the Rings", "Fantasy", "9780544003415", true),
+          new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false)
+        ),
+        () -> createBooks(
+          new BookRequest("The Lord of the Rings", "Fantasy", "9780618391110", true),
+          new BookRequest("Design Patterns", "Some description", "9780201633610", true)
+        )
+      );
+      // then
+      assertThat(statuses).containsExactlyInAnyOrder(201, 409);
+      assertThat(bookRepository.findAll())
+        .extracting("title")
+        .containsExactlyInAnyOrder("The Lord of the Rings", "The Hobbit", "Design Patterns");
+    }
+
+    private int createBooks(BookRequest... books) throws Exception {
+      var content = client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(asList(books)))
+      )
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[1].status", is(201))
+      )
+      .andReturn()
+      .getResponse()
+      .getContentAsString();
+      return JsonPath.read(content, "$[0].status");
+    }
+
+    @Test
+    @DisplayName("Don't create books when every item is invalid")
+    void givenInvalidBooks_whenCreateBooks_thenReturns422PerItem() throws Exception {
+      // given
+      var newBooks = asList(new BookRequest("", "", "9780008376055", false));
+      // when
+      client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBooks))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[0].status", is(422)),
+        jsonPath("$[0].book").doesNotExist()
+      );
+      assertThat(bookRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Report null items without failing the batch")
+    void givenNullBook_whenCreateBooks_thenReturns422ForItem() throws Exception {
+      // given
+      var newBooks = asList(null, new BookRequest("The Hobbit", "Some description", "9780008376055", false));
+      // when
+      client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBooks))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[*].status", contains(422, 201)),
+        jsonPath("$[0].message", is("book must not be null"))
+      );
+      assertThat(bookRepository.findAll())
+        .extracting("title")
+        .containsExactly("The Hobbit");
+    }
+
+    @Test
+    @DisplayName("Report items longer than their columns without failing the batch")
+    void givenTooLongDescription_whenCreateBooks_thenReturns422ForItem() throws Exception {
+      // given
+      var newBooks = asList(
+        new BookRequest("The Hobbit", "a".repeat(256), "9780008376055", false),
+        new BookRequest("Design Patterns", "Some description", "9780201633610", true)
+      );
+      // when
+      client.perform(post("/api/books/batch")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBooks))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[*].status", contains(422, 201)),
+        jsonPath("$[0].message", is("description size must be between 0 and 255"))
+      );
+      assertThat(bookRepository.findAll())
+        .extracting("title")
+        .containsExactly("Design Patterns");
+    }
+
+  }
+
   @Nested
   @DisplayName("Book find scenarios")
   class FindBookEndpointTests {
@@ -180,11 +474,99 @@ class BookEndpointsTest extends EndpointsTestTemplate {
         jsonPath("$.title", is("The Lord of the Rings")),
         jsonPath("$.description", is("Fantasy")),
         jsonPath("$.isbn", is("9780544003415")),
-        jsonPath("$.published", is(true))
+        jsonPath("$.published", is(true)),
+        jsonPath("$.version").doesNotExist(),
+        header().string("ETag", "\"0-json\"")
       )
       .andDo(document("book/find"));    
     }
 
+    @Test
+    @DisplayName("Find book with its authors")
+    void whenFindBookWithAuthors_thenReturns200() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com")
+      ));
+      authors.forEach(author -> bookRepository.linkAuthor(book.getId(), author.getId()));
+      // when
+      client.perform(get("/api/books/{id}", book.getId()).param("expand", "authors"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$.title", is("Design Patterns")),
+        jsonPath("$.version").doesNotExist(),
+        jsonPath("$.authors[*].name", contains("Erich Gamma", "Richard Helm")),
+        jsonPath("$.authors[*].version").isEmpty(),
+        header().doesNotExist("ETag")
+      )
+      .andDo(document("book/find-expanded", queryParameters(
+        parameterWithName("expand").description("`authors` to embed the book's authors")
+      )));
+    }
+
+    @Test
+    @DisplayName("Don't find book with authors when book doesn't exists")
+    void givenNonexistentBook_whenFindBookWithAuthors_thenReturns404() throws Exception {
+      // when
+      client.perform(get("/api/books/1").param("expand", "authors"))
+      // then
+      .andExpectAll(
+        status().isNotFound(),
+        jsonPath("$.message", is("Book with given id \"1\" doesn't exists"))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't resend unchanged book")
+    void givenMatchingETag_whenFindBook_thenReturns304() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      // when
+      client.perform(get("/api/books/{id}", book.getId()).header("If-None-Match", "\"0-json\""))
+      // then
+      .andExpectAll(
+        status().isNotModified(),
+        content().string("")
+      );
+    }
+
+    @Test
+    @DisplayName("Resend book changed since its ETag")
+    void givenStaleETag_whenFindBook_thenReturns200() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      client.perform(put("/api/books/{id}", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(new BookRequest("The Hobbit", "Fantasy", "9780544003415", true)))
+      );
+      // when
+      client.perform(get("/api/books/{id}", book.getId()).header("If-None-Match", "\"0-json\""))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("ETag", "\"1-json\""),
+        jsonPath("$.title", is("The Hobbit"))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't resend book unchanged in the requested format only")
+    void givenJsonETag_whenFindBookAsCbor_thenReturns200() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      // when
+      client.perform(get("/api/books/{id}", book.getId()).accept(APPLICATION_CBOR).header("If-None-Match", "\"0-json\""))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("ETag", "\"0-cbor\""),
+        content().contentType(APPLICATION_CBOR)
+      );
+    }
+
     @Test
     @DisplayName("Don't find book when book doesn't exists")
     void givenNonexistentBook_whenFindBook_thenReturns404() throws Exception {
@@ -198,12 +580,136 @@ class BookEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+    @Test
+    @DisplayName("Find edited book instead of cached one")
+    void givenCachedBook_whenFindBookAfterEdit_thenReturnsEditedBook() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var newBook = new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false);
+      client.perform(get("/api/books/{id}", book.getId()));
+      client.perform(put("/api/books/{id}", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBook))
+      );
+      // when
+      client.perform(get("/api/books/{id}", book.getId()))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$.title", is("The Hobbit")),
+        jsonPath("$.isbn", is("9780008376055"))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find deleted book from cache")
+    void givenCachedBook_whenFindBookAfterDelete_thenReturns404() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      client.perform(get("/api/books/{id}", book.getId()));
+      client.perform(delete("/api/books/{id}", book.getId()));
+      // when
+      client.perform(get("/api/books/{id}", book.getId()))
+      // then
+      .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Don't find author from cache when removed by book deletion")
+    void givenCachedAuthor_whenFindAuthorAfterBookDelete_thenReturns404() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      book.addAuthor(author);
+      bookRepository.save(book);
+      client.perform(get("/api/authors/{id}", author.getId()));
+      client.perform(delete("/api/books/{id}", book.getId()));
+      // when
+      client.perform(get("/api/authors/{id}", author.getId()))
+      // then
+      .andExpect(status().isNotFound());
+    }
+
   }
 
   @Nested
   @DisplayName("Book find all scenarios")
   class FindAllBooksEndpointTests {
 
+    @Test
+    @DisplayName("Find all books as CBOR")
+    void givenCborAccepted_whenFindAllBooks_thenReturnsCbor() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false)
+      ));
+      // when
+      var content = client.perform(get("/api/books")
+        .accept(APPLICATION_CBOR)
+        .param("sort", "title")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "2"),
+        header().string("Vary", "Accept"),
+        content().contentType(APPLICATION_CBOR)
+      )
+      .andReturn()
+      .getResponse()
+      .getContentAsByteArray();
+      assertThat(new CBORMapper().readTree(content).findValuesAsText("title"))
+        .containsExactly("The Hobbit", "The Lord of the Rings");
+    }
+
+    @Test
+    @DisplayName("Don't resend books unchanged in the requested format only")
+    void givenJsonETag_whenFindAllBooksAsCbor_thenReturns200() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var etag = client.perform(get("/api/books"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      // when
+      client.perform(get("/api/books").accept(APPLICATION_CBOR).header("If-None-Match", etag))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("ETag", not(etag))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't resend selected fields unchanged in the requested format only")
+    void givenJsonETag_whenFindAllBookFieldsAsCbor_thenReturns200() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var etag = client.perform(get("/api/books").param("fields", "title"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      // when
+      client.perform(get("/api/books").param("fields", "title").accept(APPLICATION_CBOR).header("If-None-Match", etag))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("Vary", "Accept"),
+        header().string("ETag", not(etag)),
+        content().contentType(APPLICATION_CBOR)
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find books in an unsupported format")
+    void givenUnsupportedAccept_whenFindAllBooks_thenReturns406() throws Exception {
+      // when
+      client.perform(get("/api/books").accept(APPLICATION_XML))
+      // then
+      .andExpect(status().isNotAcceptable());
+    }
+
     @Test
     @DisplayName("Find all books with success")
     void whenFindAllBooks_thenReturns200() throws Exception {
@@ -229,45 +735,787 @@ class BookEndpointsTest extends EndpointsTestTemplate {
       .andDo(document("book/find-all", snippet()));
     }
 
-    private QueryParametersSnippet snippet() {
-      return queryParameters(
-        parameterWithName("page").description("The page to retrieve"),
-        parameterWithName("size").description("Entries per page"),
-        parameterWithName("sort").description("Field to be sorted")
-      );
-    }
-
-  }
-
-  @Nested
-  @DisplayName("Book edit scenarios")
+    @Test
+    @DisplayName("Find all books with selected fields")
+    void whenFindAllBookFields_thenReturnsOnlySelectedFields() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false),
+        new Book("The Silmarillion", "description", "9780618391110", true)
+      ));
+      // when
+      client.perform(get("/api/books")
+        .param("fields", "title,id")
+        .param("page", "0")
+        .param("size", "2")
+        .param("sort", "title")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "3"),
+        jsonPath("$[*].title", contains("The Hobbit", "The Lord of the Rings")),
+        jsonPath("$[*].id", hasSize(2)),
+        jsonPath("$[*].description").isEmpty(),
+        jsonPath("$[*].isbn").isEmpty(),
+        jsonPath("$[*].published").isEmpty(),
+        jsonPath("$[*].version").isEmpty()
+      )
+      .andDo(document("book/find-all-fields", snippet().and(
+        parameterWithName("fields").description("Comma separated fields to return, among `id`, `title`, `description`, `isbn` and `published`")
+      )));
+    }
+
+    @Test
+    @DisplayName("Don't find books when selecting an unsupported field")
+    void givenUnsupportedField_whenFindAllBookFields_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/books").param("fields", "title,version"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Field \"version\" is not supported"))
+      );
+    }
+
+    @Test
+    @DisplayName("Find all books with their authors")
+    void whenFindAllBooksWithAuthors_thenReturns200() throws Exception {
+      // given
+      var books = bookRepository.saveAll(asList(
+        new Book("Design Patterns", "Some description", "9780201633610", true),
+        new Book("Refactoring", "Another description", "9780201485677", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false)
+      ));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com"),
+        new Author("Martin Fowler", "martin@example.com")
+      ));
+      bookRepository.linkAuthor(books.get(0).getId(), authors.get(0).getId());
+      bookRepository.linkAuthor(books.get(0).getId(), authors.get(1).getId());
+      bookRepository.linkAuthor(books.get(1).getId(), authors.get(2).getId());
+      // when
+      client.perform(get("/api/books")
+        .param("expand", "authors")
+        .param("page", "0")
+        .param("size", "3")
+        .param("sort", "title")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "3"),
+        jsonPath("$[*].title", contains("Design Patterns", "Refactoring", "The Hobbit")),
+        jsonPath("$[0].authors[*].name", contains("Erich Gamma", "Richard Helm")),
+        jsonPath("$[1].authors[*].name", contains("Martin Fowler")),
+        jsonPath("$[2].authors", hasSize(0))
+      )
+      .andDo(document("book/find-all-expanded", snippet().and(
+        parameterWithName("expand").description("`authors` to embed the authors of each book")
+      )));
+    }
+
+    @Test
+    @DisplayName("Find all books after cursor with success")
+    void whenFindAllBooksAfterCursor_thenReturns200() throws Exception {
+      // given
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false),
+        new Book("The Silmarillion", "description", "9780618391110", true),
+        new Book("The Chronicles of Narnia", "description again", "9780060847133", false)
+      )).stream().sorted(comparing(Book::getId)).toList();
+      var cursor = Cursor.encode(books.get(0).getId());
+      // when
+      client.perform(get("/api/books")
+        .param("after", cursor)
+        .param("size", "2")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Next-Cursor", Cursor.encode(books.get(2).getId())),
+        header().doesNotExist("X-Total-Count"),
+        jsonPath("$", hasSize(2)),
+        jsonPath("$[0].title", is(books.get(1).getTitle())),
+        jsonPath("$[1].title", is(books.get(2).getTitle()))
+      )
+      .andDo(document("book/find-all-after", afterSnippet(), responseHeaders(
+        headerWithName("X-Next-Cursor").description("Cursor of the next page, absent on the last page")
+      )));
+    }
+
+    @Test
+    @DisplayName("Find last page of books after cursor without next cursor")
+    void givenLastPage_whenFindAllBooksAfterCursor_thenReturns200WithoutNextCursor() throws Exception {
+      // given
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false)
+      ));
+      // when
+      client.perform(get("/api/books")
+        .param("after", Cursor.encode(books.get(0).getId()))
+        .param("size", "2")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().doesNotExist("X-Next-Cursor"),
+        jsonPath("$", hasSize(1)),
+        jsonPath("$[0].title", is("The Hobbit"))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find books when cursor is invalid")
+    void givenInvalidCursor_whenFindAllBooksAfterCursor_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/books")
+        .param("after", "invalid")
+        .param("size", "2")
+      )
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Cursor \"invalid\" is invalid")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find books when cursor is combined with fields")
+    void givenAfterAndFields_whenFindAllBooks_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/books").param("after", "").param("fields", "title"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Parameters \"after\" and \"fields\" can't be combined")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find books when cursor is combined with expand")
+    void givenAfterAndExpand_whenFindAllBooks_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/books").param("after", "").param("expand", "authors"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Parameters \"after\" and \"expand\" can't be combined")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't find books when fields is combined with expand")
+    void givenFieldsAndExpand_whenFindAllBooks_thenReturns400() throws Exception {
+      // when
+      client.perform(get("/api/books").param("fields", "title").param("expand", "authors"))
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Parameters \"fields\" and \"expand\" can't be combined")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't resend unchanged page")
+    void givenMatchingETag_whenFindAllBooks_thenReturns304() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var etag = client.perform(get("/api/books").param("size", "10"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      // when
+      client.perform(get("/api/books").param("size", "10").header("If-None-Match", etag))
+      // then
+      .andExpectAll(
+        status().isNotModified(),
+        content().string("")
+      );
+    }
+
+    @Test
+    @DisplayName("Revalidate page without counting or reading it")
+    void givenMatchingETag_whenFindAllBooks_thenIssuesVersionsStatementOnly() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var etag = client.perform(get("/api/books").param("size", "10"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      statistics().clear();
+      // when
+      client.perform(get("/api/books").param("size", "10").header("If-None-Match", etag))
+      // then
+      .andExpect(status().isNotModified());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Tag page from its rows without another query")
+    void whenFindAllBooks_thenIssuesCountAndPageStatementsOnly() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      statistics().clear();
+      // when
+      client.perform(get("/api/books").param("size", "10"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().exists("ETag")
+      );
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Resend page when books changed")
+    void givenBookAdded_whenFindAllBooksWithOldETag_thenReturns200() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var etag = client.perform(get("/api/books").param("size", "10"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      bookRepository.save(new Book("The Hobbit", "Some detailed description", "9780008376055", false));
+      // when
+      client.perform(get("/api/books").param("size", "10").header("If-None-Match", etag))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("ETag", not(etag)),
+        jsonPath("$", hasSize(2))
+      );
+    }
+
+    @Test
+    @DisplayName("Don't resend page when only books outside it changed")
+    void givenBookOutsidePageEdited_whenFindAllBooksWithOldETag_thenReturns304() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var book = bookRepository.save(new Book("The Hobbit", "Some detailed description", "9780008376055", false));
+      var etag = client.perform(get("/api/books").param("size", "1").param("sort", "id"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      book.setDescription("Adventure");
+      bookRepository.save(book);
+      // when
+      client.perform(get("/api/books").param("size", "1").param("sort", "id").header("If-None-Match", etag))
+      // then
+      .andExpectAll(
+        status().isNotModified(),
+        content().string("")
+      );
+    }
+
+    @Test
+    @DisplayName("Resend page when a book in it changed")
+    void givenBookInPageEdited_whenFindAllBooksWithOldETag_thenReturns200() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      bookRepository.save(new Book("The Hobbit", "Some detailed description", "9780008376055", false));
+      var etag = client.perform(get("/api/books").param("size", "1").param("sort", "id"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+      book.setDescription("Adventure");
+      bookRepository.save(book);
+      // when
+      client.perform(get("/api/books").param("size", "1").param("sort", "id").header("If-None-Match", etag))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("ETag", not(etag)),
+        jsonPath("$[0].description", is("Adventure"))
+      );
+    }
+
+    @Test
+    @DisplayName("Release the database connection before writing each chunk of the page")
+    void whenFindAllBooks_thenWritesWithoutHoldingConnection() throws Exception {
+      // given
+      bookRepository.saveAll(Stream.iterate(0, i -> i + 1).limit(500)
+        .map(i -> new Book("Book " + i, "Description of book " + i, "978" + i, true))
+        .toList()
+      );
+      var pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+      var activeOnWrite = new AtomicInteger();
+      var probe = MockMvcBuilders.webAppContextSetup(context)
+        .addFilters((request, response, chain) -> chain.doFilter(request, new ConnectionProbe(response, () ->
+          activeOnWrite.accumulateAndGet(pool.getActiveConnections(), Math::max)
+        )))
+        .build();
+      // when
+      probe.perform(get("/api/books").param("size", "500"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(500))
+      );
+      assertThat(activeOnWrite).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Keep the sort order across chunks of the page")
+    void givenPageLargerThanChunk_whenFindAllBooks_thenKeepsSortOrder() throws Exception {
+      // given
+      var books = bookRepository.saveAll(Stream.iterate(0, i -> i + 1).limit(300)
+        .map(i -> new Book("Book " + i, "Description of book " + i, "978" + i, i % 4 != 0))
+        .toList()
+      );
+      var titles = books.stream()
+        .sorted(comparing(Book::isPublished).reversed().thenComparing(Book::getId))
+        .map(Book::getTitle)
+        .toArray(String[]::new);
+      // when
+      client.perform(get("/api/books").param("size", "300").param("sort", "published,desc"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$[*].title", contains(titles))
+      );
+    }
+
+    private QueryParametersSnippet snippet() {
+      return queryParameters(
+        parameterWithName("page").description("The page to retrieve"),
+        parameterWithName("size").description("Entries per page"),
+        parameterWithName("sort").description("Field to be sorted")
+      );
+    }
+
+    private QueryParametersSnippet afterSnippet() {
+      return queryParameters(
+        parameterWithName("after").description("Cursor returned by the previous page, empty for the first page"),
+        parameterWithName("size").description("Entries per page")
+      );
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Book find all with cached count scenarios")
+  @TestPropertySource(properties = {
+    "book-api.pagination.count-strategy=cached",
+    "book-api.pagination.count-ttl=1h"
+  })
+  class FindAllBooksCachedCountEndpointTests {
+
+    @Test
+    @DisplayName("Find all books with count cached between requests")
+    void givenCachedCount_whenFindAllBooks_thenReturnsCachedTotal() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      client.perform(get("/api/books"))
+        .andExpect(header().string("X-Total-Count", "1"));
+      // and
+      bookRepository.save(new Book("The Hobbit", "Some detailed description", "9780008376055", false));
+      // when
+      client.perform(get("/api/books"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "1"),
+        jsonPath("$", hasSize(2))
+      );
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Book find all without count scenarios")
+  @TestPropertySource(properties = "book-api.pagination.count-strategy=none")
+  class FindAllBooksWithoutCountEndpointTests {
+
+    @Test
+    @DisplayName("Find all books without total count")
+    void givenNoCount_whenFindAllBooks_thenReturnsNoTotal() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      // when
+      client.perform(get("/api/books"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().doesNotExist("X-Total-Count"),
+        jsonPath("$", hasSize(1))
+      );
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Book filtered find all scenarios")
+  class FilterBooksEndpointTests {
+
+    @Test
+    @DisplayName("Find published books of an author")
+    void givenPublishedAndAuthorFilters_whenFindAllBooks_thenReturnsMatchingBooks() throws Exception {
+      // given
+      var tolkien = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      var lewis = authorRepository.save(new Author("C.S. Lewis", "lewis@example.com"));
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false),
+        new Book("The Silmarillion", "description", "9780618391110", true),
+        new Book("The Chronicles of Narnia", "description again", "9780060847133", true)
+      ));
+      books.subList(0, 3).forEach(book -> book.addAuthor(tolkien));
+      books.get(3).addAuthor(lewis);
+      bookRepository.saveAll(books);
+      // when
+      client.perform(get("/api/books")
+        .param("published", "true")
+        .param("authorId", String.valueOf(tolkien.getId()))
+        .param("page", "0")
+        .param("size", "10")
+        .param("sort", "title")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "2"),
+        jsonPath("$[*].title", contains("The Lord of the Rings", "The Silmarillion"))
+      )
+      .andDo(document("book/find-all-filtered", queryParameters(
+        parameterWithName("published").description("Only books with the given publication state").optional(),
+        parameterWithName("authorId").description("Only books written by the given author").optional(),
+        parameterWithName("isbnPrefix").description("Only books whose ISBN starts with the given value").optional(),
+        parameterWithName("titlePrefix").description("Only books whose title starts with the given value").optional(),
+        parameterWithName("page").description("The page to retrieve"),
+        parameterWithName("size").description("Entries per page"),
+        parameterWithName("sort").description("Field to be sorted")
+      )));
+    }
+
+    @Test
+    @DisplayName("Find books by ISBN and title prefix")
+    void givenPrefixFilters_whenFindAllBooks_thenReturnsMatchingBooks() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false),
+        new Book("Lord of the Flies", "description", "9780618391110", true)
+      ));
+      // when
+      client.perform(get("/api/books")
+        .param("isbnPrefix", "97805")
+        .param("titlePrefix", "The ")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "1"),
+        jsonPath("$[*].title", contains("The Lord of the Rings"))
+      );
+    }
+
+    @Test
+    @DisplayName("Treat wildcards in prefixes literally")
+    void givenWildcardPrefix_whenFindAllBooks_thenReturnsNoBooks() throws Exception {
+      // given
+      bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      // when
+      client.perform(get("/api/books").param("titlePrefix", "%"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "0"),
+        jsonPath("$", hasSize(0))
+      );
+    }
+
+    @Test
+    @DisplayName("Find filtered books after a cursor")
+    void givenPublishedFilter_whenFindAllBooksAfter_thenReturnsNextMatchingBooks() throws Exception {
+      // given
+      var books = bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false),
+        new Book("The Silmarillion", "description", "9780618391110", true),
+        new Book("The Chronicles of Narnia", "description again", "9780060847133", true)
+      )).stream().sorted(comparing(Book::getId)).toList();
+      var published = books.stream().filter(Book::isPublished).toList();
+      // when
+      client.perform(get("/api/books")
+        .param("after", Cursor.encode(published.get(0).getId()))
+        .param("published", "true")
+        .param("size", "1")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Next-Cursor", Cursor.encode(published.get(1).getId())),
+        jsonPath("$[*].title", contains(published.get(1).getTitle()))
+      );
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Book search scenarios")
+  class SearchBooksEndpointTests {
+
+    @Test
+    @DisplayName("Search books ranked by relevance")
+    void whenSearchBooks_thenReturnsRankedBooks() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy epic in Middle-earth", "9780544003415", true),
+        new Book("The Hobbit", "A prelude to The Lord of the Rings", "9780008376055", false),
+        new Book("The Silmarillion", "Mythopoeic history of Middle-earth", "9780618391110", true)
+      ));
+      // when
+      client.perform(get("/api/books/search")
+        .param("q", "rings")
+        .param("page", "0")
+        .param("size", "10")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "2"),
+        jsonPath("$[*].title", contains("The Lord of the Rings", "The Hobbit"))
+      )
+      .andDo(document("book/search", queryParameters(
+        parameterWithName("q").description("Words to match against title and description"),
+        parameterWithName("page").description("Page to retrieve, starting at 0"),
+        parameterWithName("size").description("Number of books per page")
+      )));
+    }
+
+    @Test
+    @DisplayName("Search books page by page")
+    void whenSearchBooksSecondPage_thenReturnsRemainingBooks() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Fantasy", "9780008376055", false),
+        new Book("The Silmarillion", "Fantasy", "9780618391110", true)
+      ));
+      // when
+      client.perform(get("/api/books/search")
+        .param("q", "fantasy")
+        .param("page", "1")
+        .param("size", "2")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "3"),
+        jsonPath("$", hasSize(1))
+      );
+    }
+
+    @Test
+    @DisplayName("Search books past the last page")
+    void givenPageBeyondIndex_whenSearchBooks_thenReturnsEmptyPage() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Fantasy", "9780008376055", false)
+      ));
+      // when
+      client.perform(get("/api/books/search")
+        .param("q", "fantasy")
+        .param("page", "1000000000")
+        .param("size", "2000")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "2"),
+        jsonPath("$", hasSize(0))
+      );
+    }
+
+    @Test
+    @DisplayName("Search reflects edited and deleted books")
+    void givenEditedAndDeletedBooks_whenSearchBooks_thenReturnsCurrentBooks() throws Exception {
+      // given
+      var hobbit = bookRepository.save(new Book("The Hobbit", "Fantasy", "9780008376055", false));
+      var silmarillion = bookRepository.save(new Book("The Silmarillion", "Fantasy", "9780618391110", true));
+      client.perform(put("/api/books/{id}", hobbit.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(new BookRequest("The Hobbit", "Adventure novel", "9780008376055", false)))
+      );
+      client.perform(delete("/api/books/{id}", silmarillion.getId()));
+      // when
+      client.perform(get("/api/books/search").param("q", "fantasy"))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("X-Total-Count", "0"),
+        jsonPath("$", hasSize(0))
+      );
+      client.perform(get("/api/books/search").param("q", "adventure"))
+      .andExpect(jsonPath("$[*].title", contains("The Hobbit")));
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Book export scenarios")
+  class ExportBooksEndpointTests {
+
+    @Test
+    @DisplayName("Export all books as NDJSON")
+    void whenExportBooks_thenStreamsOneBookPerLine() throws Exception {
+      // given
+      bookRepository.saveAll(asList(
+        new Book("The Lord of the Rings", "Fantasy", "9780544003415", true),
+        new Book("The Hobbit", "Some detailed description", "9780008376055", false)
+      ));
+      // when
+      var result = client.perform(get("/api/books/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+      // then
+      var content = client.perform(asyncDispatch(result))
+        .andExpectAll(
+          status().isOk(),
+          content().contentType(APPLICATION_NDJSON)
+        )
+        .andDo(document("book/export"))
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+      assertThat(content.lines())
+        .hasSize(2)
+        .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"))
+        .anySatisfy(line -> assertThat(line).contains("\"title\":\"The Hobbit\""));
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Book edit scenarios")
   class EditBookEndpointTests {
 
     @Test
-    @DisplayName("Edit book with success")
-    void whenEditBook_thenReturns200() throws Exception {
+    @DisplayName("Edit book with success")
+    void whenEditBook_thenReturns200() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var newBook = new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false);
+      // when
+      client.perform(put("/api/books/{id}", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBook))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$.id", notNullValue(Long.class)),
+        jsonPath("$.title", is("The Hobbit")),
+        jsonPath("$.description", is("Some detailed description")),
+        jsonPath("$.isbn", is("9780008376055")),
+        jsonPath("$.published", is(false))
+      )
+      .andDo(document("book/edit"));
+      // and
+      assertThat(bookRepository.findById(book.getId())).get()
+        .extracting("title", "description", "isbn", "published")
+        .contains("The Hobbit", "Some detailed description", "9780008376055", false);
+    }
+
+    @Test
+    @DisplayName("Edit book when If-Match holds the current version")
+    void givenCurrentETag_whenEditBook_thenReturns200() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var newBook = new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false);
+      // when
+      client.perform(put("/api/books/{id}", book.getId())
+        .header("If-Match", "\"0-json\"")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBook))
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        header().string("ETag", "\"1-json\""),
+        jsonPath("$.title", is("The Hobbit"))
+      )
+      .andDo(document("book/edit-conditional",
+        requestHeaders(headerWithName("If-Match").description("ETag of the version being edited, optional")),
+        responseHeaders(headerWithName("ETag").description("ETag of the edited version"))
+      ));
+    }
+
+    @Test
+    @DisplayName("Don't edit book when If-Match holds a stale version")
+    void givenStaleETag_whenEditBook_thenReturns412() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var newBook = new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false);
+      client.perform(put("/api/books/{id}", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(newBook))
+      );
+      // when
+      client.perform(put("/api/books/{id}", book.getId())
+        .header("If-Match", "\"0-json\"")
+        .contentType(APPLICATION_JSON)
+        .content(toJson(new BookRequest("The Silmarillion", "description", "9780618391110", true)))
+      )
+      // then
+      .andExpectAll(
+        status().isPreconditionFailed(),
+        jsonPath("$.message", is("Version \"0\" is not the current version"))
+      );
+      assertThat(bookRepository.findById(book.getId())).get()
+        .extracting("title", "version")
+        .contains("The Hobbit", 1L);
+    }
+
+    @Test
+    @DisplayName("Apply concurrent unconditional edits one after the other")
+    void givenConcurrentEdits_whenEditBook_thenBothSucceed() throws Exception {
       // given
       var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
-      var newBook = new BookRequest("The Hobbit", "Some detailed description", "9780008376055", false);
       // when
-      client.perform(put("/api/books/{id}", book.getId())
-        .contentType(APPLICATION_JSON)
-        .content(toJson(newBook))
-      )
+      var statuses = concurrently(
+        () -> editBook(book.getId(), null, "First description"),
+        () -> editBook(book.getId(), null, "Second description")
+      );
       // then
-      .andExpectAll(
-        status().isOk(),
-        jsonPath("$.id", notNullValue(Long.class)),
-        jsonPath("$.title", is("The Hobbit")),
-        jsonPath("$.description", is("Some detailed description")),
-        jsonPath("$.isbn", is("9780008376055")),
-        jsonPath("$.published", is(false))
-      )
-      .andDo(document("book/edit"));
-      // and
+      assertThat(statuses).containsOnly(200);
       assertThat(bookRepository.findById(book.getId())).get()
-        .extracting("title", "description", "isbn", "published")
-        .contains("The Hobbit", "Some detailed description", "9780008376055", false);
+        .extracting("version")
+        .isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Let only one of concurrent conditional edits succeed")
+    void givenConcurrentConditionalEdits_whenEditBook_thenOneFails() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      // when
+      var statuses = concurrently(
+        () -> editBook(book.getId(), "\"0-json\"", "First description"),
+        () -> editBook(book.getId(), "\"0-json\"", "Second description")
+      );
+      // then
+      assertThat(statuses).containsExactlyInAnyOrder(200, 412);
+    }
+
+    private int editBook(long id, String ifMatch, String description) throws Exception {
+      var request = put("/api/books/{id}", id)
+        .contentType(APPLICATION_JSON)
+        .content(toJson(new BookRequest("The Lord of the Rings", description, "9780544003415", true)));
+      if (ifMatch != null) {
+        request.header("If-Match", ifMatch);
+      }
+      return client.perform(request).andReturn().getResponse().getStatus();
     }
 
     @Test
@@ -441,6 +1689,68 @@ class BookEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+
+    @Test
+    @DisplayName("Find book without authors")
+    void givenBookWithoutAuthors_whenFindBookAuthors_thenReturnsEmptyList() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      // when
+      client.perform(get("/api/books/{id}/authors", book.getId()))
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(0))
+      );
+    }
+
+    @Test
+    @DisplayName("Find all books with their authors in one statement per page")
+    void whenFindAllBooksWithAuthors_thenIssuesOneAuthorStatement() throws Exception {
+      // given
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com")
+      ));
+      for (int i = 0; i < 10; i++) {
+        var book = bookRepository.save(new Book("Book " + i, "Some description", "978020163361" + i, true));
+        authors.forEach(author -> bookRepository.linkAuthor(book.getId(), author.getId()));
+      }
+      statistics().clear();
+      // when
+      client.perform(get("/api/books")
+        .param("expand", "authors")
+        .param("size", "10")
+      )
+      // then
+      .andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(10)),
+        jsonPath("$[*].authors[*].name", hasSize(20))
+      );
+      // books, their authors and the total count
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Find book authors with a single statement")
+    void whenFindBookAuthors_thenIssuesOneStatement() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com")
+      ));
+      authors.forEach(author -> book.addAuthor(author));
+      bookRepository.save(book);
+      statistics().clear();
+      // when
+      client.perform(get("/api/books/{id}/authors", book.getId()))
+      // then
+      .andExpect(status().isOk());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
   }
 
   @Nested
@@ -493,6 +1803,39 @@ class BookEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+
+    @Test
+    @DisplayName("Add author to book with a single statement")
+    void whenAddAuthorToBook_thenIssuesOneStatement() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      statistics().clear();
+      // when
+      client.perform(put("/api/books/{book-id}/authors/{author-id}", book.getId(), author.getId()))
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+      assertThat(bookRepository.findAllOfAuthor(author.getId()))
+        .extracting("title")
+        .containsExactly("The Lord of the Rings");
+    }
+
+    @Test
+    @DisplayName("Add author already linked to book")
+    void givenLinkedAuthor_whenAddAuthorToBook_thenReturns204() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      book.addAuthor(author);
+      bookRepository.save(book);
+      // when
+      client.perform(put("/api/books/{book-id}/authors/{author-id}", book.getId(), author.getId()))
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(bookRepository.findAllOfAuthor(author.getId())).hasSize(1);
+    }
+
   }
 
   @Nested
@@ -551,6 +1894,305 @@ class BookEndpointsTest extends EndpointsTestTemplate {
       );
     }
 
+
+    @Test
+    @DisplayName("Remove author from book with a single statement")
+    void whenRemoveAuthorFromBook_thenIssuesOneStatement() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("The Lord of the Rings", "Fantasy", "9780544003415", true));
+      var author = authorRepository.save(new Author("J.R.R. Tolkien", "tolkien@example.com"));
+      book.addAuthor(author);
+      bookRepository.save(book);
+      statistics().clear();
+      // when
+      client.perform(delete("/api/books/{book-id}/authors/{author-id}", book.getId(), author.getId()))
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+      assertThat(bookRepository.findAllOfAuthor(author.getId())).isEmpty();
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Set and add book authors scenarios")
+  class SetBookAuthorsEndpointTests {
+
+    @Test
+    @DisplayName("Set book authors with success")
+    void whenSetBookAuthors_thenReturns204() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com"),
+        new Author("Ralph Johnson", "ralph@example.com")
+      ));
+      book.addAuthor(authors.get(0));
+      book.addAuthor(authors.get(1));
+      bookRepository.save(book);
+      var authorIds = asList(authors.get(1).getId(), authors.get(2).getId());
+      statistics().clear();
+      // when
+      client.perform(put("/api/books/{id}/authors", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(authorIds))
+      )
+      // then
+      .andExpectAll(
+        status().isNoContent(),
+        jsonPath("$").doesNotExist()
+      )
+      .andDo(document("book/set-authors"));
+      assertThat(statistics().getPrepareStatementCount()).isEqualTo(4);
+      assertThat(authorRepository.findAllOfBook(book.getId()))
+        .extracting("name")
+        .containsExactlyInAnyOrder("Richard Helm", "Ralph Johnson");
+    }
+
+    @Test
+    @DisplayName("Set book authors to none")
+    void givenNoAuthors_whenSetBookAuthors_thenUnlinksAll() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var author = authorRepository.save(new Author("Erich Gamma", "erich@example.com"));
+      book.addAuthor(author);
+      bookRepository.save(book);
+      // when
+      client.perform(put("/api/books/{id}/authors", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content("[]")
+      )
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(authorRepository.findAllOfBook(book.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Add book authors with success")
+    void whenAddBookAuthors_thenReturns204() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com")
+      ));
+      book.addAuthor(authors.get(0));
+      bookRepository.save(book);
+      var authorIds = asList(authors.get(0).getId(), authors.get(1).getId());
+      // when
+      client.perform(post("/api/books/{id}/authors", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(authorIds))
+      )
+      // then
+      .andExpectAll(
+        status().isNoContent(),
+        jsonPath("$").doesNotExist()
+      )
+      .andDo(document("book/add-authors"));
+      assertThat(authorRepository.findAllOfBook(book.getId()))
+        .extracting("name")
+        .containsExactlyInAnyOrder("Erich Gamma", "Richard Helm");
+    }
+
+    @Test
+    @DisplayName("Don't set book authors when an author doesn't exists")
+    void givenNonexistentAuthor_whenSetBookAuthors_thenReturns404() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var author = authorRepository.save(new Author("Erich Gamma", "erich@example.com"));
+      // when
+      client.perform(put("/api/books/{id}/authors", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(asList(author.getId(), 1)))
+      )
+      // then
+      .andExpectAll(
+        status().isNotFound(),
+        jsonPath("$.message", is("Author with given id \"1\" doesn't exists")),
+        jsonPath("$.details").doesNotExist()
+      );
+      assertThat(authorRepository.findAllOfBook(book.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Don't set book authors when an author id is null")
+    void givenNullAuthorId_whenSetBookAuthors_thenReturns400() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var author = authorRepository.save(new Author("Erich Gamma", "erich@example.com"));
+      statistics().clear();
+      // when
+      client.perform(put("/api/books/{id}/authors", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content(toJson(asList(author.getId(), null)))
+      )
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Ids must not be null")),
+        jsonPath("$.details").doesNotExist()
+      );
+      assertThat(statistics().getPrepareStatementCount()).isZero();
+      assertThat(authorRepository.findAllOfBook(book.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Don't add book authors when an author id is null")
+    void givenNullAuthorId_whenAddBookAuthors_thenReturns400() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      // when
+      client.perform(post("/api/books/{id}/authors", book.getId())
+        .contentType(APPLICATION_JSON)
+        .content("[null]")
+      )
+      // then
+      .andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message", is("Ids must not be null")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+    @Test
+    @DisplayName("Don't set book authors when book doesn't exists")
+    void givenNonexistentBook_whenSetBookAuthors_thenReturns404() throws Exception {
+      // when
+      client.perform(put("/api/books/1/authors")
+        .contentType(APPLICATION_JSON)
+        .content("[]")
+      )
+      // then
+      .andExpectAll(
+        status().isNotFound(),
+        jsonPath("$.message", is("Book with given id \"1\" doesn't exists")),
+        jsonPath("$.details").doesNotExist()
+      );
+    }
+
+  }
+
+  @Nested
+  @DisplayName("Query metrics scenarios")
+  class QueryMetricsTests {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Record statements, rows and entities per handler")
+    void whenFindBookAuthors_thenRecordsQueryMetrics() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var authors = authorRepository.saveAll(asList(
+        new Author("Erich Gamma", "erich@example.com"),
+        new Author("Richard Helm", "richard@example.com")
+      ));
+      authors.forEach(author -> book.addAuthor(author));
+      bookRepository.save(book);
+      var statements = total("api.handler.jdbc.statements");
+      var rows = total("api.handler.jdbc.rows");
+      var entities = total("api.handler.hibernate.entities");
+      // when
+      client.perform(get("/api/books/{id}/authors", book.getId()))
+      // then
+      .andExpect(status().isOk());
+      assertThat(total("api.handler.jdbc.statements") - statements).isEqualTo(1);
+      assertThat(total("api.handler.jdbc.rows") - rows).isEqualTo(2);
+      assertThat(total("api.handler.hibernate.entities") - entities).isZero();
+      assertThat(meterRegistry.get("api.handler.requests").tag("handler", "BookController.findBookAuthors").timer().count())
+        .isPositive();
+    }
+
+    @Test
+    @DisplayName("Find book without authors in one read-only transaction")
+    void givenBookWithoutAuthors_whenFindBookAuthors_thenCommitsOnceWithoutFlushing() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var statements = total("BookController.findBookAuthors", "api.handler.jdbc.statements");
+      var commits = total("BookController.findBookAuthors", "api.handler.jdbc.commits");
+      statistics().clear();
+      // when
+      client.perform(get("/api/books/{id}/authors", book.getId()))
+      // then
+      .andExpect(status().isOk());
+      assertThat(total("BookController.findBookAuthors", "api.handler.jdbc.statements") - statements).isEqualTo(2);
+      assertThat(total("BookController.findBookAuthors", "api.handler.jdbc.commits") - commits).isEqualTo(1);
+      assertThat(statistics().getFlushCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Delete book in one transaction")
+    void whenDeleteBook_thenCommitsOnce() throws Exception {
+      // given
+      var book = bookRepository.save(new Book("Design Patterns", "Some description", "9780201633610", true));
+      var statements = total("BookController.deleteBook", "api.handler.jdbc.statements", "204");
+      var commits = total("BookController.deleteBook", "api.handler.jdbc.commits", "204");
+      // when
+      client.perform(delete("/api/books/{id}", book.getId()))
+      // then
+      .andExpect(status().isNoContent());
+      assertThat(total("BookController.deleteBook", "api.handler.jdbc.statements", "204") - statements).isEqualTo(3);
+      assertThat(total("BookController.deleteBook", "api.handler.jdbc.commits", "204") - commits).isEqualTo(1);
+    }
+
+    private double total(String name) {
+      return total("BookController.findBookAuthors", name);
+    }
+
+    private double total(String handler, String name) {
+      return total(handler, name, "200");
+    }
+
+    private double total(String handler, String name, String status) {
+      var summary = meterRegistry.find(name).tag("handler", handler).tag("status", status).summary();
+      return summary == null ? 0 : summary.totalAmount();
+    }
+
+  }
+
+  // Runs a check on every write to the response body
+  private static class ConnectionProbe extends HttpServletResponseWrapper {
+
+    private final Runnable check;
+
+    ConnectionProbe(ServletResponse response, Runnable check) {
+      super((HttpServletResponse) response);
+      this.check = check;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      var output = super.getOutputStream();
+      return new ServletOutputStream() {
+
+        @Override
+        public void write(int b) throws IOException {
+          check.run();
+          output.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          check.run();
+          output.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+          return output.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+          output.setWriteListener(listener);
+        }
+
+      };
+    }
+
   }
 
 }